@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch that estimates how many distinct strings it has seen to within about 1%,
+ * using 2^14 one-byte registers (16 KB) no matter how many strings there are. Sketches of the
+ * same size merge by taking the larger of each pair of registers. Adding is thread-safe.
+ */
+public final class HyperLogLog {
+
+  private static final int PRECISION = 14;
+  private static final int REGISTER_COUNT = 1 << PRECISION;
+
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this.registers = new byte[REGISTER_COUNT];
+  }
+
+  private HyperLogLog(byte[] registers) {
+    this.registers = registers;
+  }
+
+  /** Creates a sketch from the bytes returned by {@code toByteArray}. */
+  public static HyperLogLog fromByteArray(byte[] bytes) {
+    if (bytes.length != REGISTER_COUNT) {
+      throw new IllegalArgumentException("a sketch has " + REGISTER_COUNT + " registers");
+    }
+    return new HyperLogLog(bytes.clone());
+  }
+
+  /** Adds {@code value}. Returns whether the sketch changed. */
+  public boolean add(String value) {
+    long hash = hash(value);
+    int index = (int) (hash >>> (64 - PRECISION));
+    // The rank is the position of the first set bit after the index bits, counting from 1.
+    int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    return raise(index, rank);
+  }
+
+  /** Merges {@code other} into this sketch. Returns whether this sketch changed. */
+  public boolean merge(HyperLogLog other) {
+    boolean isChanged = false;
+    for (int i = 0; i < REGISTER_COUNT; i++) {
+      isChanged |= raise(i, other.registers[i]);
+    }
+    return isChanged;
+  }
+
+  /** Returns the estimated number of distinct strings added. */
+  public long estimate() {
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < REGISTER_COUNT; i++) {
+      byte register = registers[i];
+      sum += 1.0 / (1L << register);
+      zeros += (register == 0) ? 1 : 0;
+    }
+
+    double alpha = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+    double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+
+    // Small counts leave registers empty, and counting those is more accurate.
+    if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+      estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /** Returns a copy of the registers, for storing the sketch. */
+  public synchronized byte[] toByteArray() {
+    return Arrays.copyOf(registers, REGISTER_COUNT);
+  }
+
+  private boolean raise(int index, int rank) {
+    // Most values do not raise a register, so the lock is only taken when one might.
+    if (registers[index] >= rank) {
+      return false;
+    }
+    synchronized (this) {
+      if (registers[index] >= rank) {
+        return false;
+      }
+      registers[index] = (byte) rank;
+      return true;
+    }
+  }
+
+  /** 64-bit FNV-1a of the UTF-8 bytes, mixed with the MurmurHash3 finalizer. */
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
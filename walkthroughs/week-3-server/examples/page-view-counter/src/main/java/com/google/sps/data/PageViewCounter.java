@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Page view counter that survives restarts and is shared by every instance. Requests only add to
+ * a LongAdder, and a background thread adds the new views to a random shard in Datastore every
+ * few seconds, so instances rarely write to the same entity at once. Each flush also reads the
+ * shards back, so the count includes the views of the other instances.
+ */
+public final class PageViewCounter {
+
+  private static final Logger logger = Logger.getLogger(PageViewCounter.class.getName());
+
+  private static final String SHARD_KIND = "PageViewShard";
+  private static final int SHARD_COUNT = 20;
+  private static final long FLUSH_SECONDS = 5;
+
+  private final DatastoreService datastore;
+  private final LongAdder views = new LongAdder();
+  private final ScheduledExecutorService flusher;
+
+  // The views of this instance that are already in Datastore. Only used while flushing.
+  private long flushedViews = 0;
+
+  // The sum of the shards when they were last read, minus the views of this instance that were in
+  // it. Adding the views counted so far gives the count of every instance.
+  private volatile long base;
+
+  public PageViewCounter(DatastoreService datastore) {
+    this.datastore = datastore;
+    this.base = sumShards();
+    // Background threads outlive the request that starts them, which App Engine only allows on
+    // instances with basic or manual scaling (see appengine-web.xml).
+    this.flusher =
+        Executors.newSingleThreadScheduledExecutor(ThreadManager.backgroundThreadFactory());
+    flusher.scheduleWithFixedDelay(this::flush, FLUSH_SECONDS, FLUSH_SECONDS, TimeUnit.SECONDS);
+  }
+
+  public void increment() {
+    views.increment();
+  }
+
+  /**
+   * Returns the views of every instance as of the last flush plus the views this instance has
+   * counted since.
+   */
+  public long get() {
+    return base + views.sum();
+  }
+
+  /** Stops the flusher after writing the views it has not written yet. */
+  public void close() {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(FLUSH_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  /** Reads every shard by key, which unlike a query sees the latest writes of other instances. */
+  private long sumShards() {
+    List<Key> keys = new ArrayList<>(SHARD_COUNT);
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      keys.add(shardKey(i));
+    }
+    long sum = 0;
+    for (Entity shard : datastore.get(keys).values()) {
+      sum += (long) shard.getProperty("count");
+    }
+    return sum;
+  }
+
+  private static Key shardKey(int index) {
+    return KeyFactory.createKey(SHARD_KIND, "shard-" + index);
+  }
+
+  private synchronized void flush() {
+    try {
+      write();
+      base = sumShards() - flushedViews;
+    } catch (RuntimeException e) {
+      // Datastore failures, timeouts and contention on the shard (ConcurrentModificationException)
+      // are all unchecked. Views that were not written are written by the next flush instead.
+      logger.log(Level.WARNING, "Could not flush page views", e);
+    }
+  }
+
+  /** Adds the views counted since the last write to a random shard. */
+  private void write() {
+    long total = views.sum();
+    long delta = total - flushedViews;
+    if (delta == 0) {
+      return;
+    }
+
+    Key key = shardKey(ThreadLocalRandom.current().nextInt(SHARD_COUNT));
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      Entity shard;
+      try {
+        shard = datastore.get(transaction, key);
+      } catch (EntityNotFoundException e) {
+        shard = new Entity(key);
+        shard.setProperty("count", 0L);
+      }
+      shard.setProperty("count", (long) shard.getProperty("count") + delta);
+      datastore.put(transaction, shard);
+      transaction.commit();
+      flushedViews = total;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+}
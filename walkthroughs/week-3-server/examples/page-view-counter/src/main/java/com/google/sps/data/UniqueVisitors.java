@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Transaction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Estimates the unique visitors of each known route with a HyperLogLog sketch. A background
+ * thread merges the sketches that changed with the ones other instances stored in Datastore every
+ * few seconds, so every instance ends up estimating the visitors of all of them.
+ */
+public final class UniqueVisitors {
+
+  private static final Logger logger = Logger.getLogger(UniqueVisitors.class.getName());
+
+  private static final String SKETCH_KIND = "VisitorSketch";
+  private static final long FLUSH_SECONDS = 30;
+
+  // Each sketch takes 16 KB, so no more than this many paths are tracked.
+  private static final int MAX_PATHS = 1000;
+
+  private final DatastoreService datastore;
+  private final Set<String> routes;
+  private final Map<String, HyperLogLog> sketches = new ConcurrentHashMap<>();
+  private final Set<String> changedPaths = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * Creates a counter that tracks visits to {@code routes} only, so that requests for made-up
+   * paths cannot fill up memory or Datastore.
+   */
+  public UniqueVisitors(DatastoreService datastore, Collection<String> routes) {
+    this.datastore = datastore;
+    this.routes = new HashSet<>(routes);
+    // Sketches stored before a route was removed, or by a build with other routes, are skipped.
+    for (Entity entity : datastore.prepare(new Query(SKETCH_KIND)).asIterable()) {
+      String path = entity.getKey().getName();
+      if (this.routes.contains(path) && sketches.size() < MAX_PATHS) {
+        sketches.put(path, sketchOf(entity));
+      }
+    }
+    // Background threads outlive the request that starts them, which App Engine only allows on
+    // instances with basic or manual scaling (see appengine-web.xml).
+    this.flusher =
+        Executors.newSingleThreadScheduledExecutor(ThreadManager.backgroundThreadFactory());
+    flusher.scheduleWithFixedDelay(this::flush, FLUSH_SECONDS, FLUSH_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Records a visit to {@code path} by {@code visitor}, such as the id in their visitor cookie.
+   * Visits to paths that are not known routes are ignored.
+   */
+  public void visit(String path, String visitor) {
+    HyperLogLog sketch = sketches.get(path);
+    if (sketch == null) {
+      if (!routes.contains(path) || sketches.size() >= MAX_PATHS) {
+        return;
+      }
+      sketch = sketches.computeIfAbsent(path, unused -> new HyperLogLog());
+    }
+    if (sketch.add(visitor)) {
+      changedPaths.add(path);
+    }
+  }
+
+  /** Returns the estimated unique visitors of every path, sorted by path. */
+  public Map<String, Long> estimates() {
+    Map<String, Long> estimates = new TreeMap<>();
+    for (Map.Entry<String, HyperLogLog> entry : sketches.entrySet()) {
+      estimates.put(entry.getKey(), entry.getValue().estimate());
+    }
+    return estimates;
+  }
+
+  /** Stops the flusher after storing the sketches that changed. */
+  public void close() {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(FLUSH_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private synchronized void flush() {
+    for (String path : new ArrayList<>(changedPaths)) {
+      changedPaths.remove(path);
+      if (!store(path, sketches.get(path))) {
+        changedPaths.add(path);
+      }
+    }
+  }
+
+  /** Merges the stored sketch of {@code path} into {@code sketch} and stores the result. */
+  private boolean store(String path, HyperLogLog sketch) {
+    Key key = KeyFactory.createKey(SKETCH_KIND, path);
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      try {
+        sketch.merge(sketchOf(datastore.get(transaction, key)));
+      } catch (EntityNotFoundException e) {
+        // This is the first instance to see the path.
+      }
+      Entity entity = new Entity(key);
+      entity.setUnindexedProperty("registers", new Blob(sketch.toByteArray()));
+      datastore.put(transaction, entity);
+      transaction.commit();
+      return true;
+    } catch (RuntimeException e) {
+      // Datastore failures and contention are unchecked. The sketch is stored by the next flush.
+      logger.log(Level.WARNING, "Could not store the visitor sketch of " + path, e);
+      return false;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+
+  private static HyperLogLog sketchOf(Entity entity) {
+    return HyperLogLog.fromByteArray(((Blob) entity.getProperty("registers")).getBytes());
+  }
+}
@@ -14,24 +14,78 @@
 
 package com.google.sps.servlets;
 
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.sps.data.PageViewCounter;
+import com.google.sps.data.UniqueVisitors;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-/** Servlet that returns HTML that contains the page view count. */
-@WebServlet("/page-views")
+/**
+ * Servlet that returns HTML that contains the page view count. Each of its routes also counts its
+ * unique visitors, which /unique-visitors returns.
+ */
+@WebServlet(urlPatterns = "/page-views", loadOnStartup = 1)
 public class PageViewServlet extends HttpServlet {
 
-  private int pageViews = 0;
+  private static final String VISITOR_COOKIE = "visitor";
+
+  // Visitors keep their id for two years, so they are not counted again once a session ends.
+  private static final int VISITOR_COOKIE_MAX_AGE_SECONDS = 2 * 365 * 24 * 60 * 60;
+
+  private PageViewCounter pageViews;
+  private UniqueVisitors uniqueVisitors;
+
+  @Override
+  public void init() {
+    pageViews = new PageViewCounter(DatastoreServiceFactory.getDatastoreService());
+    // The known routes are the exact URL patterns of this servlet, never the raw request URI.
+    Collection<String> routes =
+        getServletContext().getServletRegistration(getServletName()).getMappings().stream()
+            .filter(mapping -> !mapping.contains("*"))
+            .collect(Collectors.toList());
+    uniqueVisitors = new UniqueVisitors(DatastoreServiceFactory.getDatastoreService(), routes);
+    getServletContext().setAttribute(UniqueVisitors.class.getName(), uniqueVisitors);
+  }
+
+  @Override
+  public void destroy() {
+    pageViews.close();
+    uniqueVisitors.close();
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    pageViews++;
+    pageViews.increment();
+    uniqueVisitors.visit(request.getServletPath(), getVisitorId(request, response));
 
     response.setContentType("text/html;");
     response.getWriter().println("<h1>Page Views</h1>");
-    response.getWriter().println("<p>This page has been viewed " + pageViews + " times.</p>");
+    response.getWriter().println("<p>This page has been viewed " + pageViews.get() + " times.</p>");
+  }
+
+  /** Returns the id in the visitor cookie, first setting the cookie if the visitor has none. */
+  private String getVisitorId(HttpServletRequest request, HttpServletResponse response) {
+    if (request.getCookies() != null) {
+      for (Cookie cookie : request.getCookies()) {
+        if (VISITOR_COOKIE.equals(cookie.getName())) {
+          return cookie.getValue();
+        }
+      }
+    }
+
+    String id = UUID.randomUUID().toString();
+    Cookie cookie = new Cookie(VISITOR_COOKIE, id);
+    cookie.setPath("/");
+    cookie.setMaxAge(VISITOR_COOKIE_MAX_AGE_SECONDS);
+    cookie.setHttpOnly(true);
+    response.addCookie(cookie);
+    return id;
   }
 }
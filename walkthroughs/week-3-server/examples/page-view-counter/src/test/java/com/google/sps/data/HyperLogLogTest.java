@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HyperLogLogTest {
+  // The standard error with 2^14 registers is about 0.8%, so this leaves room for the hash.
+  private static final double MAX_ERROR = 0.03;
+
+  @Test
+  public void estimatesAThousandValues() {
+    assertEstimates(1000);
+  }
+
+  @Test
+  public void estimatesAHundredThousandValues() {
+    assertEstimates(100000);
+  }
+
+  @Test
+  public void emptySketchEstimatesZero() {
+    Assert.assertEquals(0, new HyperLogLog().estimate());
+  }
+
+  @Test
+  public void addingAValueAgainDoesNotChangeTheSketch() {
+    HyperLogLog sketch = new HyperLogLog();
+    Assert.assertTrue(sketch.add("visitor-1"));
+    Assert.assertFalse(sketch.add("visitor-1"));
+    Assert.assertEquals(1, sketch.estimate());
+  }
+
+  @Test
+  public void mergeIsIdempotent() {
+    HyperLogLog sketch = sketchOf(0, 5000);
+    HyperLogLog other = sketchOf(2500, 7500);
+
+    Assert.assertTrue(sketch.merge(other));
+    byte[] merged = sketch.toByteArray();
+    Assert.assertFalse(sketch.merge(other));
+    Assert.assertFalse(sketch.merge(sketch));
+    Assert.assertArrayEquals(merged, sketch.toByteArray());
+
+    // Merging two overlapping sketches counts the values they share once.
+    Assert.assertArrayEquals(sketchOf(0, 7500).toByteArray(), merged);
+  }
+
+  @Test
+  public void byteArrayRoundTrip() {
+    HyperLogLog sketch = sketchOf(0, 10000);
+
+    HyperLogLog copy = HyperLogLog.fromByteArray(sketch.toByteArray());
+
+    Assert.assertArrayEquals(sketch.toByteArray(), copy.toByteArray());
+    Assert.assertEquals(sketch.estimate(), copy.estimate());
+
+    // The copy does not share registers with the sketch it came from.
+    copy.merge(sketchOf(10000, 20000));
+    Assert.assertNotEquals(sketch.estimate(), copy.estimate());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void byteArrayMustHoldEveryRegister() {
+    HyperLogLog.fromByteArray(new byte[16]);
+  }
+
+  private static void assertEstimates(int count) {
+    long estimate = sketchOf(0, count).estimate();
+    Assert.assertEquals(count, estimate, count * MAX_ERROR);
+  }
+
+  /** Returns a sketch of the visitors numbered {@code start} (inclusive) to {@code end}. */
+  private static HyperLogLog sketchOf(int start, int end) {
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = start; i < end; i++) {
+      sketch.add("visitor-" + i);
+    }
+    return sketch;
+  }
+}
@@ -14,21 +14,150 @@
 
 package com.google.sps.data;
 
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 /** Class containing server statistics. */
 public final class ServerStats {
 
+  /** Memory use of the heap, the non-heap or one memory pool, in bytes. */
+  public static final class Memory {
+
+    private final String name;
+    private final long used;
+    private final long committed;
+    private final long max;
+
+    public Memory(String name, MemoryUsage usage) {
+      this.name = name;
+      this.used = usage.getUsed();
+      this.committed = usage.getCommitted();
+      this.max = usage.getMax();
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getUsed() {
+      return used;
+    }
+
+    public long getCommitted() {
+      return committed;
+    }
+
+    /** Returns the most memory that can be used, or -1 if there is no limit. */
+    public long getMax() {
+      return max;
+    }
+  }
+
+  /** Collections run by one garbage collector and the total time they took. */
+  public static final class GarbageCollector {
+
+    private final String name;
+    private final long count;
+    private final long timeMillis;
+
+    public GarbageCollector(String name, long count, long timeMillis) {
+      this.name = name;
+      this.count = count;
+      this.timeMillis = timeMillis;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTimeMillis() {
+      return timeMillis;
+    }
+  }
+
   private final Date startTime;
   private final Date currentTime;
   private final long maxMemory;
   private final long usedMemory;
+  private final long uptimeMillis;
+  private final Memory heap;
+  private final Memory nonHeap;
+  private final List<Memory> memoryPools;
+  private final List<GarbageCollector> garbageCollectors;
+  private final int threadCount;
+  private final int peakThreadCount;
+  private final int daemonThreadCount;
+  private final int loadedClassCount;
+  private final long totalLoadedClassCount;
+  private final long unloadedClassCount;
+  private final int availableProcessors;
+  private final double systemLoadAverage;
+  private final double processCpuLoad;
+
+  private ServerStats(Date startTime, Date currentTime) {
+    Runtime runtime = Runtime.getRuntime();
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
 
-  public ServerStats(Date startTime, Date currentTime, long maxMemory, long usedMemory) {
     this.startTime = startTime;
     this.currentTime = currentTime;
-    this.maxMemory = maxMemory;
-    this.usedMemory = usedMemory;
+    this.maxMemory = runtime.maxMemory();
+    this.usedMemory = runtime.totalMemory() - runtime.freeMemory();
+    this.uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    this.heap = new Memory("heap", memory.getHeapMemoryUsage());
+    this.nonHeap = new Memory("non-heap", memory.getNonHeapMemoryUsage());
+
+    List<Memory> memoryPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      // Pools that are no longer valid have no usage.
+      MemoryUsage usage = pool.getUsage();
+      if (usage != null) {
+        memoryPools.add(new Memory(pool.getName(), usage));
+      }
+    }
+    this.memoryPools = Collections.unmodifiableList(memoryPools);
+
+    List<GarbageCollector> garbageCollectors = new ArrayList<>();
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      garbageCollectors.add(new GarbageCollector(
+          collector.getName(), collector.getCollectionCount(), collector.getCollectionTime()));
+    }
+    this.garbageCollectors = Collections.unmodifiableList(garbageCollectors);
+
+    this.threadCount = threads.getThreadCount();
+    this.peakThreadCount = threads.getPeakThreadCount();
+    this.daemonThreadCount = threads.getDaemonThreadCount();
+    this.loadedClassCount = classLoading.getLoadedClassCount();
+    this.totalLoadedClassCount = classLoading.getTotalLoadedClassCount();
+    this.unloadedClassCount = classLoading.getUnloadedClassCount();
+    this.availableProcessors = operatingSystem.getAvailableProcessors();
+    this.systemLoadAverage = operatingSystem.getSystemLoadAverage();
+
+    // The CPU load of the process is only available on JVMs that extend the standard bean.
+    this.processCpuLoad = (operatingSystem instanceof com.sun.management.OperatingSystemMXBean)
+        ? ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad()
+        : -1;
+  }
+
+  /** Reads the current statistics of this server, which started at {@code startTime}. */
+  public static ServerStats capture(Date startTime) {
+    return new ServerStats(startTime, new Date());
   }
 
   public Date getStartTime() {
@@ -46,4 +175,62 @@ public final class ServerStats {
   public long getUsedMemory() {
     return usedMemory;
   }
+
+  public long getUptimeMillis() {
+    return uptimeMillis;
+  }
+
+  public Memory getHeap() {
+    return heap;
+  }
+
+  public Memory getNonHeap() {
+    return nonHeap;
+  }
+
+  public List<Memory> getMemoryPools() {
+    return memoryPools;
+  }
+
+  public List<GarbageCollector> getGarbageCollectors() {
+    return garbageCollectors;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public int getPeakThreadCount() {
+    return peakThreadCount;
+  }
+
+  public int getDaemonThreadCount() {
+    return daemonThreadCount;
+  }
+
+  public int getLoadedClassCount() {
+    return loadedClassCount;
+  }
+
+  public long getTotalLoadedClassCount() {
+    return totalLoadedClassCount;
+  }
+
+  public long getUnloadedClassCount() {
+    return unloadedClassCount;
+  }
+
+  public int getAvailableProcessors() {
+    return availableProcessors;
+  }
+
+  /** Returns the system load average for the last minute, or a negative value if unavailable. */
+  public double getSystemLoadAverage() {
+    return systemLoadAverage;
+  }
+
+  /** Returns the recent CPU use of this process from 0 to 1, or a negative value if unavailable. */
+  public double getProcessCpuLoad() {
+    return processCpuLoad;
+  }
 }
@@ -16,6 +16,7 @@ package com.google.sps.servlets;
 
 import com.google.sps.data.ServerStats;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.util.Date;
 import javax.servlet.annotation.WebServlet;
@@ -31,37 +32,70 @@ public final class ServerStatsServlet extends HttpServlet {
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     // Calculate server stats
-    Date currentTime = new Date();
-    long maxMemory = Runtime.getRuntime().maxMemory();
-    long usedMemory = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    ServerStats serverStats = ServerStats.capture(startTime);
 
-    // Convert the server stats to JSON
-    ServerStats serverStats = new ServerStats(startTime, currentTime, maxMemory, usedMemory);
-    String json = convertToJson(serverStats);
-
-    // Send the JSON as the response
+    // Send the server stats as JSON, written straight to the response without building a string
     response.setContentType("application/json;");
-    response.getWriter().println(json);
+    writeJson(serverStats, new JsonWriter(response.getWriter()));
+    response.getWriter().println();
   }
 
   /**
-   * Converts a ServerStats instance into a JSON string using manual String concatentation.
+   * Writes a ServerStats instance as JSON using a streaming writer, one value at a time.
    */
-  private String convertToJson(ServerStats serverStats) {
-    String json = "{";
-    json += "\"startTime\": ";
-    json += "\"" + serverStats.getStartTime() + "\"";
-    json += ", ";
-    json += "\"currentTime\": ";
-    json += "\"" + serverStats.getCurrentTime() + "\"";
-    json += ", ";
-    json += "\"maxMemory\": ";
-    json += serverStats.getMaxMemory();
-    json += ", ";
-    json += "\"usedMemory\": ";
-    json += serverStats.getUsedMemory();
-    json += "}";
-    return json;
+  private void writeJson(ServerStats serverStats, JsonWriter json) throws IOException {
+    json.beginObject();
+    json.name("startTime").value(serverStats.getStartTime().toString());
+    json.name("currentTime").value(serverStats.getCurrentTime().toString());
+    json.name("uptimeMillis").value(serverStats.getUptimeMillis());
+    json.name("maxMemory").value(serverStats.getMaxMemory());
+    json.name("usedMemory").value(serverStats.getUsedMemory());
+    json.name("heap");
+    writeJson(serverStats.getHeap(), json);
+    json.name("nonHeap");
+    writeJson(serverStats.getNonHeap(), json);
+
+    json.name("memoryPools").beginArray();
+    for (ServerStats.Memory pool : serverStats.getMemoryPools()) {
+      writeJson(pool, json);
+    }
+    json.endArray();
+
+    json.name("garbageCollectors").beginArray();
+    for (ServerStats.GarbageCollector collector : serverStats.getGarbageCollectors()) {
+      json.beginObject();
+      json.name("name").value(collector.getName());
+      json.name("count").value(collector.getCount());
+      json.name("timeMillis").value(collector.getTimeMillis());
+      json.endObject();
+    }
+    json.endArray();
+
+    json.name("threadCount").value(serverStats.getThreadCount());
+    json.name("peakThreadCount").value(serverStats.getPeakThreadCount());
+    json.name("daemonThreadCount").value(serverStats.getDaemonThreadCount());
+    json.name("loadedClassCount").value(serverStats.getLoadedClassCount());
+    json.name("totalLoadedClassCount").value(serverStats.getTotalLoadedClassCount());
+    json.name("unloadedClassCount").value(serverStats.getUnloadedClassCount());
+    json.name("availableProcessors").value(serverStats.getAvailableProcessors());
+    // JSON has no NaN, so unavailable loads are written as -1.
+    json.name("systemLoadAverage").value(orMinusOne(serverStats.getSystemLoadAverage()));
+    json.name("processCpuLoad").value(orMinusOne(serverStats.getProcessCpuLoad()));
+    json.endObject();
+    json.flush();
+  }
+
+  private void writeJson(ServerStats.Memory memory, JsonWriter json) throws IOException {
+    json.beginObject();
+    json.name("name").value(memory.getName());
+    json.name("used").value(memory.getUsed());
+    json.name("committed").value(memory.getCommitted());
+    json.name("max").value(memory.getMax());
+    json.endObject();
+  }
+
+  private static double orMinusOne(double value) {
+    return Double.isNaN(value) ? -1 : value;
   }
 
   /**
@@ -30,9 +30,39 @@ function getServerStats() {
         createListElement('Max memory: ' + stats.maxMemory));
     statsListElement.appendChild(
         createListElement('Used memory: ' + stats.usedMemory));
+    statsListElement.appendChild(
+        createListElement('Uptime: ' + stats.uptimeMillis + ' ms'));
+    statsListElement.appendChild(createListElement('Heap: ' + formatMemory(stats.heap)));
+    statsListElement.appendChild(
+        createListElement('Non-heap: ' + formatMemory(stats.nonHeap)));
+    for (const pool of stats.memoryPools) {
+      statsListElement.appendChild(
+          createListElement(pool.name + ': ' + formatMemory(pool)));
+    }
+    for (const collector of stats.garbageCollectors) {
+      statsListElement.appendChild(createListElement(
+          collector.name + ': ' + collector.count + ' collections in ' +
+          collector.timeMillis + ' ms'));
+    }
+    statsListElement.appendChild(createListElement(
+        'Threads: ' + stats.threadCount + ' (' + stats.daemonThreadCount +
+        ' daemon, peak ' + stats.peakThreadCount + ')'));
+    statsListElement.appendChild(createListElement(
+        'Classes: ' + stats.loadedClassCount + ' loaded (' +
+        stats.totalLoadedClassCount + ' total, ' + stats.unloadedClassCount +
+        ' unloaded)'));
+    statsListElement.appendChild(createListElement(
+        'CPU: ' + stats.availableProcessors + ' processors, load average ' +
+        stats.systemLoadAverage + ', process load ' + stats.processCpuLoad));
   });
 }
 
+/** Formats the used, committed and max bytes of a memory area. */
+function formatMemory(memory) {
+  return memory.used + ' used, ' + memory.committed + ' committed, ' +
+      (memory.max < 0 ? 'no' : memory.max) + ' max';
+}
+
 /** Creates an <li> element containing text. */
 function createListElement(text) {
   const liElement = document.createElement('li');
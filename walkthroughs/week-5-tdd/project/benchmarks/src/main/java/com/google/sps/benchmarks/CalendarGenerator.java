@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic single-day calendars for benchmarking the scheduler. The same seed always
+ * generates the same events and requests.
+ */
+public final class CalendarGenerator {
+  // Events are placed on a 5 minute grid, like most real calendars.
+  private static final int GRANULARITY = 5;
+
+  private static final int LONGEST_EVENT = 8 * 60;
+
+  private final Random random;
+  private final int attendeeCount;
+  private final double meanMeetingSize;
+  private final int eventDuration;
+
+  /**
+   * Creates a new generator.
+   *
+   * @param seed The seed for all random choices.
+   * @param attendeeCount The number of distinct people in the calendar.
+   * @param eventsPerAttendee The average number of events each person attends.
+   * @param meanMeetingSize The average number of attendees per event. Sizes follow a geometric
+   *     distribution, so most events are small and a few are large.
+   * @param busyFraction The average fraction of the day that each person's events add up to,
+   *     before overlaps are merged. Higher values make events longer and overlaps more likely.
+   */
+  public CalendarGenerator(long seed, int attendeeCount, double eventsPerAttendee,
+      double meanMeetingSize, double busyFraction) {
+    if (attendeeCount <= 0) {
+      throw new IllegalArgumentException("attendeeCount must be positive");
+    }
+
+    if (meanMeetingSize < 1) {
+      throw new IllegalArgumentException("meanMeetingSize must be at least 1");
+    }
+
+    this.random = new Random(seed);
+    this.attendeeCount = attendeeCount;
+    this.meanMeetingSize = meanMeetingSize;
+
+    // Each person attends {@code eventsPerAttendee} events that together cover
+    // {@code busyFraction} of the day.
+    int duration = (int) (busyFraction * TimeRange.WHOLE_DAY.duration() / eventsPerAttendee);
+    this.eventDuration = Math.max(GRANULARITY, Math.min(LONGEST_EVENT, round(duration)));
+  }
+
+  /**
+   * Returns the name of the person with the given index.
+   */
+  public static String person(int index) {
+    return "Person " + index;
+  }
+
+  /**
+   * Generates {@code count} events.
+   */
+  public List<Event> events(int count) {
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int start = round(random.nextInt(TimeRange.WHOLE_DAY.duration() - eventDuration + 1));
+      TimeRange when = TimeRange.fromStartDuration(start, eventDuration);
+      events.add(new Event("Event " + i, when, attendees(meetingSize())));
+    }
+    return events;
+  }
+
+  /**
+   * Generates a request for {@code required} people, with {@code optional} more people that are
+   * optional. Calendars with fewer people than that get a request for everyone, with as many of
+   * them required as possible.
+   */
+  public MeetingRequest request(int required, int optional, long duration) {
+    List<String> attendees = new ArrayList<>(attendees(required + optional));
+    int requiredCount = Math.min(required, attendees.size());
+
+    MeetingRequest request = new MeetingRequest(attendees.subList(0, requiredCount), duration);
+    for (String attendee : attendees.subList(requiredCount, attendees.size())) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  private int meetingSize() {
+    // Sample a geometric distribution on {1, 2, ...} with the requested mean.
+    double p = 1 / meanMeetingSize;
+    int size = 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - Math.min(p, 0.999999)));
+    return Math.min(size, attendeeCount);
+  }
+
+  private Collection<String> attendees(int count) {
+    Set<String> attendees = new LinkedHashSet<>();
+    while (attendees.size() < Math.min(count, attendeeCount)) {
+      attendees.add(person(random.nextInt(attendeeCount)));
+    }
+    return attendees;
+  }
+
+  private static int round(int minutes) {
+    return minutes / GRANULARITY * GRANULARITY;
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Calendar;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SlotRanking;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the scheduler on synthetic calendars. Run with {@code -prof gc} to also report the
+ * bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class FindMeetingQueryBenchmark {
+  @Param({"10", "10000", "1000000"})
+  public int events;
+
+  @Param({"10"})
+  public double eventsPerAttendee;
+
+  @Param({"3"})
+  public double meanMeetingSize;
+
+  @Param({"0.3"})
+  public double busyFraction;
+
+  @Param({"5"})
+  public int requiredAttendees;
+
+  @Param({"2"})
+  public int optionalAttendees;
+
+  @Param({"30"})
+  public long duration;
+
+  private List<Event> eventList;
+  private Calendar calendar;
+  private MeetingRequest request;
+  private FindMeetingQuery query;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // Choose the number of people so that each of them attends {@code eventsPerAttendee} events.
+    int attendeeCount = (int) Math.max(1, events * meanMeetingSize / eventsPerAttendee);
+    CalendarGenerator generator =
+        new CalendarGenerator(42, attendeeCount, eventsPerAttendee, meanMeetingSize, busyFraction);
+
+    eventList = generator.events(events);
+    calendar = new Calendar(eventList);
+    request = generator.request(requiredAttendees, optionalAttendees, duration);
+    query = new FindMeetingQuery();
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(eventList, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryAllAttendees() {
+    return query.queryAllAttendees(eventList, request, request.getAttendees());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryCalendar() {
+    return query.query(calendar, request);
+  }
+
+  @Benchmark
+  public List<TimeRange> suggestEarliest() {
+    return query.suggest(eventList, request, 3, SlotRanking.earliest());
+  }
+}
@@ -0,0 +1,54 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.MeetingRequest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryBenchmarkTest {
+  @Test
+  public void smallestCalendarSetsUp() {
+    // 10 events give a pool of 3 people, fewer than the 5 required and 2 optional attendees.
+    FindMeetingQueryBenchmark benchmark = new FindMeetingQueryBenchmark();
+    benchmark.events = 10;
+    benchmark.eventsPerAttendee = 10;
+    benchmark.meanMeetingSize = 3;
+    benchmark.busyFraction = 0.3;
+    benchmark.requiredAttendees = 5;
+    benchmark.optionalAttendees = 2;
+    benchmark.duration = 30;
+
+    benchmark.setUp();
+
+    Assert.assertNotNull(benchmark.query());
+    Assert.assertNotNull(benchmark.queryCalendar());
+    Assert.assertNotNull(benchmark.suggestEarliest());
+  }
+
+  @Test
+  public void requestNeverRepeatsAttendees() {
+    CalendarGenerator generator = new CalendarGenerator(42, 3, 10, 3, 0.3);
+
+    MeetingRequest request = generator.request(5, 2, 30);
+
+    Assert.assertEquals(3, request.getAttendees().size());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every attendee name a dense integer id, so that the scheduler can compare attendees
+ * with bit probes instead of string lookups. Ids are handed out in the order names are first seen
+ * and never change. Dictionaries are thread-safe.
+ */
+public final class AttendeeDictionary {
+  /** Returned by {@code lookup} for names that were never interned. */
+  public static final int NOT_FOUND = -1;
+
+  private static final AttendeeDictionary INSTANCE = new AttendeeDictionary();
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // The name of every id, indexed by id. Guarded by {@code this}.
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Returns the dictionary shared by every {@code Event} in this process.
+   */
+  public static AttendeeDictionary getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the id of {@code name}, assigning the next free id if {@code name} has not been seen
+   * before.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    return ids.computeIfAbsent(name, this::append);
+  }
+
+  /**
+   * Returns the id of {@code name}, or {@code NOT_FOUND} if it was never interned. Unlike
+   * {@code intern}, this never grows the dictionary.
+   */
+  public int lookup(String name) {
+    if (name == null) {
+      return NOT_FOUND;
+    }
+
+    Integer id = ids.get(name);
+    return id == null ? NOT_FOUND : id;
+  }
+
+  /**
+   * Returns the name that was assigned {@code id}.
+   */
+  public synchronized String getName(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of names in the dictionary. Every id is less than this number.
+   */
+  public synchronized int size() {
+    return names.size();
+  }
+
+  /**
+   * Interns every name in {@code names} and returns their ids sorted in ascending order, without
+   * duplicates.
+   */
+  public int[] internAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      result[size++] = intern(name);
+    }
+    Arrays.sort(result);
+
+    // Drop duplicates in place now that equal ids are next to each other.
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (distinct == 0 || result[distinct - 1] != result[i]) {
+        result[distinct++] = result[i];
+      }
+    }
+    return distinct == result.length ? result : Arrays.copyOf(result, distinct);
+  }
+
+  /**
+   * Returns a set holding the id of every name in {@code names}. Names that were never interned
+   * cannot appear in any event, so they are left out rather than added to the dictionary.
+   */
+  public BitSet toBitSet(Collection<String> names) {
+    BitSet result = new BitSet();
+    for (String name : names) {
+      int id = lookup(name);
+      if (id != NOT_FOUND) {
+        result.set(id);
+      }
+    }
+    return result;
+  }
+
+  private synchronized Integer append(String name) {
+    names.add(name);
+    return names.size() - 1;
+  }
+}
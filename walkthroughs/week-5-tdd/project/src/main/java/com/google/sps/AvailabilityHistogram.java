@@ -0,0 +1,248 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * How many of a group of attendees are free during each bucket of the day, run-length encoded so
+ * that long stretches with the same count take up a single run. An attendee is free during a
+ * bucket if none of their events overlaps any part of it.
+ */
+public final class AvailabilityHistogram {
+  /**
+   * A stretch of consecutive buckets with the same number of free attendees.
+   */
+  public static final class Run {
+    private final int start;
+    private final int end;
+    private final int free;
+
+    Run(int start, int end, int free) {
+      this.start = start;
+      this.end = end;
+      this.free = free;
+    }
+
+    /**
+     * Returns the start of the run in minutes.
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /**
+     * Returns the end of the run in minutes. This ending value is the closing exclusive bound.
+     */
+    public int getEnd() {
+      return end;
+    }
+
+    /**
+     * Returns the number of attendees that are free during the whole run.
+     */
+    public int getFree() {
+      return free;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Run && start == ((Run) other).start && end == ((Run) other).end
+          && free == ((Run) other).free;
+    }
+
+    @Override
+    public int hashCode() {
+      return (start * 31 + end) * 31 + free;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Run: [%d, %d) free=%d", start, end, free);
+    }
+  }
+
+  private final int bucketMinutes;
+  private final int attendees;
+  private final List<Run> runs;
+
+  private AvailabilityHistogram(int bucketMinutes, int attendees, List<Run> runs) {
+    this.bucketMinutes = bucketMinutes;
+    this.attendees = attendees;
+    this.runs = runs;
+  }
+
+  /**
+   * Returns the length of each bucket in minutes.
+   */
+  public int getBucketMinutes() {
+    return bucketMinutes;
+  }
+
+  /**
+   * Returns the number of distinct attendees that were counted.
+   */
+  public int getAttendees() {
+    return attendees;
+  }
+
+  /**
+   * Returns the runs covering the whole day, in order.
+   */
+  public List<Run> getRuns() {
+    return Collections.unmodifiableList(runs);
+  }
+
+  /**
+   * Counts how many of {@code attendees} are free during each bucket of {@code bucketMinutes}
+   * minutes. Runs in O(events + buckets): a difference array is built over the bucket boundaries
+   * of the blocking events and summed once.
+   */
+  public static AvailabilityHistogram compute(
+      Collection<Event> events, Collection<String> attendees, int bucketMinutes) {
+    BitSet requestAttendees = AttendeeDictionary.getInstance().toBitSet(attendees);
+    Buckets buckets = new Buckets(bucketMinutes, requestAttendees.length());
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      for (int attendee : event.getAttendeeIds()) {
+        if (requestAttendees.get(attendee)) {
+          buckets.block(attendee, when.start(), when.end());
+        }
+      }
+    }
+    return buckets.toHistogram(new HashSet<String>(attendees).size());
+  }
+
+  /**
+   * Counts how many of {@code attendees} are free during each bucket of {@code bucketMinutes}
+   * minutes, reading the columns of a memory-mapped store instead of decoded events.
+   */
+  public static AvailabilityHistogram compute(
+      BinaryEventStore store, Collection<String> attendees, int bucketMinutes) {
+    // The store has its own dictionary, so the attendees are looked up there.
+    BitSet requestAttendees = new BitSet();
+    for (String attendee : attendees) {
+      int id = store.lookup(attendee);
+      if (id != BinaryEventStore.NOT_FOUND) {
+        requestAttendees.set(id);
+      }
+    }
+
+    Buckets buckets = new Buckets(bucketMinutes, requestAttendees.length());
+    for (int event = 0; event < store.size(); event++) {
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        int attendee = store.getAttendeeId(event, i);
+        if (requestAttendees.get(attendee)) {
+          buckets.block(attendee, store.getStart(event), store.getEnd(event));
+        }
+      }
+    }
+    return buckets.toHistogram(new HashSet<String>(attendees).size());
+  }
+
+  /**
+   * The blocked buckets of each attendee, grouped by their first bucket. Going through them in
+   * that order lets each attendee's overlapping events be merged without sorting.
+   */
+  private static final class Buckets {
+    private final int bucketMinutes;
+    private final int bucketCount;
+    private final int attendeeLimit;
+    private final int[] firstByBucket;
+
+    // Each entry is an attendee, the bucket after their last blocked one and the next entry in the
+    // same first bucket.
+    private int[] blocked = new int[3 * 16];
+    private int blockedCount = 0;
+
+    Buckets(int bucketMinutes, int attendeeLimit) {
+      int dayMinutes = TimeRange.WHOLE_DAY.duration();
+      if (bucketMinutes <= 0 || bucketMinutes > dayMinutes) {
+        throw new IllegalArgumentException("bucketMinutes must be between 1 and " + dayMinutes);
+      }
+      this.bucketMinutes = bucketMinutes;
+      this.bucketCount = (dayMinutes + bucketMinutes - 1) / bucketMinutes;
+      this.attendeeLimit = attendeeLimit;
+      this.firstByBucket = new int[bucketCount];
+      Arrays.fill(firstByBucket, -1);
+    }
+
+    /**
+     * Blocks every bucket that overlaps {@code start} to {@code end} (exclusive) for
+     * {@code attendee}, which must be less than the limit given to the constructor.
+     */
+    void block(int attendee, int start, int end) {
+      int startBucket = Math.max(0, start / bucketMinutes);
+      int endBucket = Math.min(bucketCount, (end + bucketMinutes - 1) / bucketMinutes);
+      if (end <= start || startBucket >= endBucket) {
+        return;
+      }
+      if (3 * blockedCount == blocked.length) {
+        blocked = Arrays.copyOf(blocked, 2 * blocked.length);
+      }
+      blocked[3 * blockedCount] = attendee;
+      blocked[3 * blockedCount + 1] = endBucket;
+      blocked[3 * blockedCount + 2] = firstByBucket[startBucket];
+      firstByBucket[startBucket] = blockedCount++;
+    }
+
+    /**
+     * Counts the free attendees of every bucket, out of {@code attendeeCount}, and merges equal
+     * neighbouring buckets into runs.
+     */
+    AvailabilityHistogram toHistogram(int attendeeCount) {
+      // Marks each attendee busy from the first bucket of an event up to its last one, skipping
+      // the buckets that an earlier event of the same attendee already marked.
+      int[] difference = new int[bucketCount + 1];
+      int[] coveredUntil = new int[attendeeLimit];
+      for (int bucket = 0; bucket < bucketCount; bucket++) {
+        for (int i = firstByBucket[bucket]; i >= 0; i = blocked[3 * i + 2]) {
+          int attendee = blocked[3 * i];
+          int endBucket = blocked[3 * i + 1];
+          int startBucket = Math.max(bucket, coveredUntil[attendee]);
+          if (startBucket < endBucket) {
+            difference[startBucket]++;
+            difference[endBucket]--;
+            coveredUntil[attendee] = endBucket;
+          }
+        }
+      }
+
+      // Sums the difference array and merges equal neighbouring buckets into runs.
+      int dayMinutes = TimeRange.WHOLE_DAY.duration();
+      List<Run> runs = new ArrayList<Run>();
+      int busy = difference[0];
+      int runStart = 0;
+      int runFree = attendeeCount - busy;
+      for (int bucket = 1; bucket < bucketCount; bucket++) {
+        busy += difference[bucket];
+        int free = attendeeCount - busy;
+        if (free != runFree) {
+          runs.add(new Run(runStart * bucketMinutes, bucket * bucketMinutes, runFree));
+          runStart = bucket;
+          runFree = free;
+        }
+      }
+      runs.add(new Run(runStart * bucketMinutes, dayMinutes, runFree));
+      return new AvailabilityHistogram(bucketMinutes, attendeeCount, runs);
+    }
+  }
+}
@@ -0,0 +1,340 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A read-only store of events kept in a compact binary file that is memory-mapped rather than
+ * parsed, so opening it is instant no matter how many events it holds and every process that maps
+ * the same file shares one copy of it in the page cache.
+ *
+ * <p>The file is stored column by column, with every int in big-endian order:
+ *
+ * <pre>
+ *   magic, version, event count, attendee count, string count, string byte count
+ *   start of every event
+ *   end of every event (exclusive)
+ *   title of every event, as a string id
+ *   attendee offsets: event i's attendees are at [offsets[i], offsets[i + 1])
+ *   attendees of every event, as string ids sorted in ascending order
+ *   string offsets: string i's bytes are at [offsets[i], offsets[i + 1])
+ *   UTF-8 bytes of every string, sorted so that ids can be found with a binary search
+ * </pre>
+ */
+public final class BinaryEventStore {
+  /** Returned by {@code lookup} for strings that are not in the store. */
+  public static final int NOT_FOUND = -1;
+
+  private static final int MAGIC = 0x43414C31;
+  private static final int VERSION = 1;
+  private static final int HEADER_INTS = 6;
+
+  private final int eventCount;
+  private final IntBuffer starts;
+  private final IntBuffer ends;
+  private final IntBuffer titles;
+  private final IntBuffer attendeeOffsets;
+  private final IntBuffer attendees;
+  private final IntBuffer stringOffsets;
+  private final ByteBuffer strings;
+  private final int stringCount;
+
+  private BinaryEventStore(ByteBuffer buffer) {
+    IntBuffer header = buffer.asIntBuffer();
+    if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+      throw new IllegalArgumentException("not an event store file");
+    }
+
+    eventCount = header.get(2);
+    int attendeeCount = header.get(3);
+    stringCount = header.get(4);
+    int stringBytes = header.get(5);
+
+    int position = HEADER_INTS;
+    starts = slice(buffer, position, eventCount);
+    position += eventCount;
+    ends = slice(buffer, position, eventCount);
+    position += eventCount;
+    titles = slice(buffer, position, eventCount);
+    position += eventCount;
+    attendeeOffsets = slice(buffer, position, eventCount + 1);
+    position += eventCount + 1;
+    attendees = slice(buffer, position, attendeeCount);
+    position += attendeeCount;
+    stringOffsets = slice(buffer, position, stringCount + 1);
+    position += stringCount + 1;
+
+    ByteBuffer bytes = buffer.duplicate();
+    bytes.position(position * Integer.BYTES);
+    bytes.limit(position * Integer.BYTES + stringBytes);
+    strings = bytes.slice();
+  }
+
+  /**
+   * Maps the event store file at {@code path}. The mapping stays valid after the file channel is
+   * closed.
+   */
+  public static BinaryEventStore open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new BinaryEventStore(buffer.order(ByteOrder.BIG_ENDIAN));
+    }
+  }
+
+  /**
+   * Writes {@code events} to a new event store file at {@code path}, replacing any existing file.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    // Every title and attendee goes into one sorted dictionary.
+    TreeSet<String> sortedStrings = new TreeSet<>();
+    int attendeeCount = 0;
+    for (Event event : events) {
+      sortedStrings.add(event.getTitle());
+      sortedStrings.addAll(event.getAttendees());
+      attendeeCount += event.getAttendees().size();
+    }
+    String[] dictionary = sortedStrings.toArray(new String[0]);
+    byte[][] encoded = new byte[dictionary.length][];
+    int stringBytes = 0;
+    for (int i = 0; i < dictionary.length; i++) {
+      encoded[i] = dictionary[i].getBytes(StandardCharsets.UTF_8);
+      stringBytes += encoded[i].length;
+    }
+
+    try (OutputStream file = Files.newOutputStream(path);
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+      int[] header = {MAGIC, VERSION, events.size(), attendeeCount, dictionary.length, stringBytes};
+      for (int value : header) {
+        out.writeInt(value);
+      }
+
+      for (Event event : events) {
+        out.writeInt(event.getWhen().start());
+      }
+      for (Event event : events) {
+        out.writeInt(event.getWhen().end());
+      }
+      for (Event event : events) {
+        out.writeInt(Arrays.binarySearch(dictionary, event.getTitle()));
+      }
+
+      int offset = 0;
+      out.writeInt(offset);
+      for (Event event : events) {
+        offset += event.getAttendees().size();
+        out.writeInt(offset);
+      }
+      for (Event event : events) {
+        // Strings are numbered in sorted order, so sorting the names sorts the ids.
+        for (String attendee : new TreeSet<>(event.getAttendees())) {
+          out.writeInt(Arrays.binarySearch(dictionary, attendee));
+        }
+      }
+
+      offset = 0;
+      out.writeInt(offset);
+      for (byte[] string : encoded) {
+        offset += string.length;
+        out.writeInt(offset);
+      }
+      for (byte[] string : encoded) {
+        out.write(string);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of events in the store.
+   */
+  public int size() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the start of event {@code event} in minutes.
+   */
+  public int getStart(int event) {
+    return starts.get(event);
+  }
+
+  /**
+   * Returns the end of event {@code event} in minutes. This ending value is the closing exclusive
+   * bound.
+   */
+  public int getEnd(int event) {
+    return ends.get(event);
+  }
+
+  /**
+   * Returns the title of event {@code event}.
+   */
+  public String getTitle(int event) {
+    return getString(titles.get(event));
+  }
+
+  /**
+   * Returns the number of attendees of event {@code event}.
+   */
+  public int getAttendeeCount(int event) {
+    return attendeeOffsets.get(event + 1) - attendeeOffsets.get(event);
+  }
+
+  /**
+   * Returns the string id of attendee {@code index} of event {@code event}. The ids of an event's
+   * attendees are in ascending order.
+   */
+  public int getAttendeeId(int event, int index) {
+    return attendees.get(attendeeOffsets.get(event) + index);
+  }
+
+  /**
+   * Returns the number of distinct titles and attendees in the store. String ids run from 0 up to
+   * this count, in sorted order.
+   */
+  public int getStringCount() {
+    return stringCount;
+  }
+
+  /**
+   * Returns the string with id {@code id}.
+   */
+  public String getString(int id) {
+    int start = stringOffsets.get(id);
+    int end = stringOffsets.get(id + 1);
+    byte[] bytes = new byte[end - start];
+    ByteBuffer view = strings.duplicate();
+    view.position(start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the id of {@code string}, or {@code NOT_FOUND} if the store does not hold it. Runs a
+   * binary search over the sorted dictionary, comparing against the mapped bytes without decoding
+   * them into strings.
+   */
+  public int lookup(String string) {
+    int low = 0;
+    int high = stringCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int order = compareString(middle, string);
+      if (order < 0) {
+        low = middle + 1;
+      } else if (order > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Compares the string with id {@code id} to {@code string} in the order of
+   * {@code String.compareTo}, which is the order the dictionary was sorted in. That order compares
+   * UTF-16 chars rather than UTF-8 bytes, so each code point is decoded in place and compared as
+   * one or two chars.
+   */
+  private int compareString(int id, String string) {
+    int position = stringOffsets.get(id);
+    int end = stringOffsets.get(id + 1);
+    int index = 0;
+    while (position < end) {
+      int lead = strings.get(position++) & 0xFF;
+      int codePoint;
+      int continuations;
+      if (lead < 0x80) {
+        codePoint = lead;
+        continuations = 0;
+      } else if (lead < 0xE0) {
+        codePoint = lead & 0x1F;
+        continuations = 1;
+      } else if (lead < 0xF0) {
+        codePoint = lead & 0x0F;
+        continuations = 2;
+      } else {
+        codePoint = lead & 0x07;
+        continuations = 3;
+      }
+      for (int i = 0; i < continuations; i++) {
+        codePoint = (codePoint << 6) | (strings.get(position++) & 0x3F);
+      }
+
+      // Code points outside of the BMP are two chars, a high then a low surrogate.
+      boolean isPair = !Character.isBmpCodePoint(codePoint);
+      for (int unit = 0; unit < (isPair ? 2 : 1); unit++) {
+        if (index == string.length()) {
+          return 1;
+        }
+        char c = !isPair ? (char) codePoint
+            : (unit == 0) ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+        int order = c - string.charAt(index++);
+        if (order != 0) {
+          return order;
+        }
+      }
+    }
+    return index - string.length();
+  }
+
+  /**
+   * Decodes event {@code event} into an {@code Event}.
+   */
+  public Event getEvent(int event) {
+    List<String> names = new ArrayList<>(getAttendeeCount(event));
+    for (int i = 0; i < getAttendeeCount(event); i++) {
+      names.add(getString(getAttendeeId(event, i)));
+    }
+    TimeRange when = TimeRange.fromStartEnd(getStart(event), getEnd(event), false);
+    return new Event(getTitle(event), when, names);
+  }
+
+  /**
+   * Decodes every event in the store.
+   */
+  public List<Event> toEvents() {
+    List<Event> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      events.add(getEvent(i));
+    }
+    return events;
+  }
+
+  private static IntBuffer slice(ByteBuffer buffer, int position, int length) {
+    ByteBuffer view = buffer.duplicate();
+    view.position(position * Integer.BYTES);
+    view.limit((position + length) * Integer.BYTES);
+    return view.slice().asIntBuffer();
+  }
+}
@@ -0,0 +1,294 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers meeting requests by scattering the attendees to the {@code BusyWorker} that owns each of
+ * them and gathering the busy time they send back. The workers are asked in parallel, and their
+ * merged busy ranges go through the same free-slot extraction as {@code FindMeetingQuery}, so the
+ * answers are the same as querying one calendar with every event. Coordinators are thread-safe.
+ */
+public final class BusyCoordinator implements Closeable {
+  // How long connecting to a worker, or waiting for its answer, may take before the query fails.
+  private static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+
+  private final List<Connection> workers = new ArrayList<>();
+  private final List<Process> processes;
+  private final ExecutorService requests;
+
+  /**
+   * Creates a coordinator for running workers. Worker i must serve partition i of
+   * {@code workers.size()}.
+   */
+  public BusyCoordinator(List<InetSocketAddress> workers) {
+    this(workers, new ArrayList<Process>(), DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Like {@code BusyCoordinator(workers)}, but gives up on a worker after {@code timeoutMillis}.
+   */
+  BusyCoordinator(List<InetSocketAddress> workers, int timeoutMillis) {
+    this(workers, new ArrayList<Process>(), timeoutMillis);
+  }
+
+  private BusyCoordinator(
+      List<InetSocketAddress> workers, List<Process> processes, int timeoutMillis) {
+    if (workers.isEmpty()) {
+      throw new IllegalArgumentException("workers cannot be empty");
+    }
+
+    for (InetSocketAddress worker : workers) {
+      this.workers.add(new Connection(worker, timeoutMillis));
+    }
+    this.processes = processes;
+    this.requests = Executors.newFixedThreadPool(workers.size(), runnable -> {
+      Thread thread = new Thread(runnable, "busy-coordinator");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts {@code count} workers in their own processes on this machine, using the class path of
+   * this process, and creates a coordinator for them. Closing the coordinator stops the workers.
+   * {@code workerArgs} are passed to every worker after its partition, such as the path of an
+   * event store file.
+   */
+  public static BusyCoordinator startLocalWorkers(int count, String... workerArgs)
+      throws IOException {
+    String java = String.join(File.separator, System.getProperty("java.home"), "bin", "java");
+    List<Process> processes = new ArrayList<>();
+    List<InetSocketAddress> workers = new ArrayList<>();
+    try {
+      for (int partition = 0; partition < count; partition++) {
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-cp",
+            System.getProperty("java.class.path"), BusyWorker.class.getName(),
+            String.valueOf(partition), String.valueOf(count)));
+        command.addAll(Arrays.asList(workerArgs));
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        processes.add(process);
+
+        // The worker prints its port once it is listening.
+        BufferedReader output = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String port = output.readLine();
+        if (port == null) {
+          throw new IOException("worker " + partition + " exited before listening");
+        }
+        workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+            Integer.parseInt(port.trim())));
+      }
+    } catch (IOException | RuntimeException e) {
+      processes.forEach(Process::destroy);
+      throw e;
+    }
+    return new BusyCoordinator(workers, processes, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Queries the time ranges that could accommodate the meeting request, with optional attendees
+   * handled the same way as {@code FindMeetingQuery.query}. Quorum requests are not supported.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    if (request.isQuorum()) {
+      throw new IllegalArgumentException("quorum requests are not supported");
+    }
+    return FindMeetingQuery.query(
+        request, attendees -> queryAllAttendees(attendees, request.getDuration()));
+  }
+
+  /**
+   * Queries the time ranges when all of {@code attendees} are free for {@code duration} minutes.
+   */
+  public Collection<TimeRange> queryAllAttendees(Collection<String> attendees, long duration) {
+    // Scatters each attendee to the worker of its partition.
+    List<List<String>> partitions = new ArrayList<>();
+    for (int i = 0; i < workers.size(); i++) {
+      partitions.add(new ArrayList<String>());
+    }
+    for (String attendee : attendees) {
+      partitions.get(BusyWorker.partitionOf(attendee, workers.size())).add(attendee);
+    }
+
+    List<Future<long[]>> answers = new ArrayList<>();
+    for (int i = 0; i < workers.size(); i++) {
+      if (!partitions.get(i).isEmpty()) {
+        Connection worker = workers.get(i);
+        List<String> partition = partitions.get(i);
+        answers.add(requests.submit(() -> worker.fetchBusyTimes(partition)));
+      }
+    }
+
+    // Gathers the busy ranges. Each worker's ranges are merged already, but ranges from different
+    // workers may still overlap, which the free-slot extraction handles.
+    long[] blocked = new long[0];
+    for (Future<long[]> answer : answers) {
+      long[] busy = getAnswer(answer);
+      int offset = blocked.length;
+      blocked = Arrays.copyOf(blocked, offset + busy.length);
+      System.arraycopy(busy, 0, blocked, offset, busy.length);
+    }
+    Arrays.sort(blocked);
+    return FindMeetingQuery.findAvailableRanges(blocked, blocked.length, duration);
+  }
+
+  /**
+   * Stops asking workers, closes the connections to them, and stops the workers this coordinator
+   * started.
+   */
+  @Override
+  public void close() {
+    requests.shutdownNow();
+    for (Connection worker : workers) {
+      worker.close();
+    }
+    for (Process process : processes) {
+      process.destroy();
+    }
+  }
+
+  private static long[] getAnswer(Future<long[]> answer) {
+    try {
+      return answer.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while waiting for a worker", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw new UncheckedIOException("a worker could not be reached", (IOException) e.getCause());
+      }
+      throw new IllegalStateException("a worker failed", e.getCause());
+    }
+  }
+
+  /**
+   * The connection to one worker, opened on first use and kept for every later request, since a
+   * worker answers any number of requests on one connection. Requests to the same worker take
+   * turns on it. A connection that fails is closed and opened again by the next request.
+   */
+  private static final class Connection implements Closeable {
+    private final InetSocketAddress address;
+    private final int timeoutMillis;
+
+    // Only replaced while holding the lock, but volatile so that {@code close} can drop the socket
+    // without waiting for a request that is blocked on it.
+    private volatile Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    Connection(InetSocketAddress address, int timeoutMillis) {
+      this.address = address;
+      this.timeoutMillis = timeoutMillis;
+    }
+
+    synchronized long[] fetchBusyTimes(List<String> attendees) throws IOException {
+      boolean isReused = (socket != null);
+      try {
+        return request(attendees);
+      } catch (IOException e) {
+        drop();
+        if (!isReused || e instanceof SocketTimeoutException) {
+          throw e;
+        }
+        // The worker may have closed a connection that sat idle, so try once on a fresh one.
+        try {
+          return request(attendees);
+        } catch (IOException retryException) {
+          drop();
+          throw retryException;
+        }
+      }
+    }
+
+    private long[] request(List<String> attendees) throws IOException {
+      if (socket == null) {
+        open();
+      }
+      out.writeInt(attendees.size());
+      for (String attendee : attendees) {
+        out.writeUTF(attendee);
+      }
+      out.flush();
+
+      long[] busy = new long[in.readInt()];
+      for (int i = 0; i < busy.length; i++) {
+        busy[i] = in.readLong();
+      }
+      return busy;
+    }
+
+    private void open() throws IOException {
+      Socket connection = new Socket();
+      try {
+        connection.connect(address, timeoutMillis);
+        connection.setSoTimeout(timeoutMillis);
+        connection.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+      } catch (IOException e) {
+        connection.close();
+        throw e;
+      }
+      socket = connection;
+    }
+
+    /** Closes the socket so that the next request opens a new one. Called holding the lock. */
+    private void drop() {
+      close();
+      socket = null;
+      in = null;
+      out = null;
+    }
+
+    /** Closes the socket, which also ends a request that is waiting on it. */
+    @Override
+    public void close() {
+      Socket connection = socket;
+      if (connection != null) {
+        try {
+          connection.close();
+        } catch (IOException e) {
+          // The connection is being dropped anyway.
+        }
+      }
+    }
+  }
+}
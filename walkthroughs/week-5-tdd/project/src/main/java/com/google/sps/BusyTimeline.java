@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The busy time of a single attendee, kept both as the raw ranges of their events and as a set of
+ * merged, non-touching ranges. Adding or removing a range only touches the merged ranges around
+ * it, so both operations run in O(log n) plus the number of ranges that get merged or split.
+ */
+final class BusyTimeline {
+  /**
+   * Orders ranges by start time, then by duration, so that two different ranges never compare as
+   * equal.
+   */
+  private static final Comparator<TimeRange> ORDER_BY_START_THEN_DURATION =
+      TimeRange.ORDER_BY_START.thenComparingInt(TimeRange::duration);
+
+  // Every range that was added, with the number of times it was added.
+  private final NavigableMap<TimeRange, Integer> ranges =
+      new TreeMap<>(ORDER_BY_START_THEN_DURATION);
+
+  // The merged ranges keyed by their start time. No two merged ranges overlap or touch.
+  private final NavigableMap<Integer, TimeRange> merged = new TreeMap<>();
+
+  /**
+   * Marks {@code range} as busy.
+   */
+  public void add(TimeRange range) {
+    ranges.merge(range, 1, Integer::sum);
+
+    int start = range.start();
+    int end = range.end();
+
+    // Start from the merged range that begins at or before {@code range}, if it reaches it.
+    Map.Entry<Integer, TimeRange> floor = merged.floorEntry(start);
+    Integer from = (floor != null && floor.getValue().end() >= start) ? floor.getKey() : start;
+
+    // Swallow every merged range that overlaps or touches {@code range}.
+    NavigableMap<Integer, TimeRange> touching = merged.subMap(from, true, end, true);
+    for (TimeRange other : touching.values()) {
+      start = Math.min(start, other.start());
+      end = Math.max(end, other.end());
+    }
+    touching.clear();
+
+    merged.put(start, TimeRange.fromStartEnd(start, end, false));
+  }
+
+  /**
+   * Removes one occurrence of {@code range}. Returns {@code false} if {@code range} was never
+   * added.
+   */
+  public boolean remove(TimeRange range) {
+    Integer count = ranges.get(range);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      ranges.remove(range);
+    } else {
+      ranges.put(range, count - 1);
+    }
+
+    // The merged range holding {@code range} is the only one that can change, so rebuild it from
+    // the raw ranges that start inside of it.
+    TimeRange block = merged.remove(merged.floorKey(range.start()));
+    Collection<TimeRange> inside = ranges.subMap(
+        TimeRange.fromStartDuration(block.start(), Integer.MIN_VALUE), true,
+        TimeRange.fromStartDuration(block.end(), Integer.MAX_VALUE), true).keySet();
+
+    int start = 0;
+    int end = 0;
+    boolean open = false;
+    for (TimeRange other : inside) {
+      if (open && other.start() <= end) {
+        end = Math.max(end, other.end());
+        continue;
+      }
+      if (open) {
+        merged.put(start, TimeRange.fromStartEnd(start, end, false));
+      }
+      start = other.start();
+      end = other.end();
+      open = true;
+    }
+    if (open) {
+      merged.put(start, TimeRange.fromStartEnd(start, end, false));
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if no busy ranges are left.
+   */
+  public boolean isEmpty() {
+    return ranges.isEmpty();
+  }
+
+  /**
+   * Returns a read-only view of the merged busy ranges, sorted by start time.
+   */
+  public Collection<TimeRange> getMergedRanges() {
+    return Collections.unmodifiableCollection(merged.values());
+  }
+}
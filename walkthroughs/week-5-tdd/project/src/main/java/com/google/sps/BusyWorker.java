@@ -0,0 +1,275 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the busy time of one partition of the attendees over a loopback socket, so that the
+ * calendar can be split between several processes. Attendees are assigned to partitions by the
+ * hash of their name, and a worker only keeps the events of the attendees in its partition.
+ *
+ * <p>Each request on a connection is the number of attendees followed by their names, written with
+ * {@code DataOutputStream.writeUTF}. The answer is the number of busy ranges followed by the
+ * ranges, packed like {@code PackedTimeRange}, merged and sorted by start time. Attendees from
+ * other partitions are ignored. A connection can carry any number of requests, each with at most
+ * {@code MAX_ATTENDEES} attendees.
+ */
+public final class BusyWorker implements Closeable {
+  /** The most attendees a single request may ask about. */
+  public static final int MAX_ATTENDEES = 10000;
+
+  private final Calendar calendar = new Calendar();
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+
+  // The accepted sockets that are still open, so that {@code close} can close them. Threads
+  // blocked reading a socket are not woken by an interrupt, only by closing the socket.
+  private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+  private volatile boolean isClosed = false;
+
+  private BusyWorker(Collection<Event> ownedEvents, int partition) throws IOException {
+    for (Event event : ownedEvents) {
+      calendar.addEvent(event);
+    }
+
+    // The calendar is complete before the first connection, and is only read after that.
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    connections = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "busy-worker-" + partition);
+      thread.setDaemon(true);
+      return thread;
+    });
+    connections.execute(this::acceptConnections);
+  }
+
+  /**
+   * Starts a worker for partition {@code partition} of {@code partitions}, listening on a free
+   * loopback port. Only the events of attendees in the partition are kept.
+   */
+  public static BusyWorker start(Collection<Event> events, int partition, int partitions)
+      throws IOException {
+    checkPartition(partition, partitions);
+    List<Event> owned = new ArrayList<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        if (partitionOf(attendee, partitions) == partition) {
+          owned.add(event);
+          break;
+        }
+      }
+    }
+    return new BusyWorker(owned, partition);
+  }
+
+  /**
+   * Starts a worker for partition {@code partition} of {@code partitions} that reads its events
+   * from a mapped {@code store}. The store's columns are filtered before anything is decoded, so
+   * only the events of attendees in the partition become {@code Event}s, and only the names of
+   * those attendees are interned. The heap of the worker grows with its partition, not with the
+   * whole calendar.
+   */
+  public static BusyWorker start(BinaryEventStore store, int partition, int partitions)
+      throws IOException {
+    checkPartition(partition, partitions);
+    List<Event> owned = new ArrayList<>();
+    for (int event = 0; event < store.size(); event++) {
+      List<String> attendees = new ArrayList<>();
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        String attendee = store.getString(store.getAttendeeId(event, i));
+        if (partitionOf(attendee, partitions) == partition) {
+          attendees.add(attendee);
+        }
+      }
+      if (!attendees.isEmpty()) {
+        TimeRange when = TimeRange.fromStartEnd(store.getStart(event), store.getEnd(event), false);
+        owned.add(new Event(store.getTitle(event), when, attendees));
+      }
+    }
+    return new BusyWorker(owned, partition);
+  }
+
+  private static void checkPartition(int partition, int partitions) {
+    if (partitions <= 0 || partition < 0 || partition >= partitions) {
+      throw new IllegalArgumentException("partition must be between 0 and partitions - 1");
+    }
+  }
+
+  /**
+   * Returns the partition of the attendees that {@code attendee} belongs to.
+   */
+  public static int partitionOf(String attendee, int partitions) {
+    return Math.floorMod(attendee.hashCode(), partitions);
+  }
+
+  /**
+   * Returns the loopback port the worker listens on.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   */
+  @Override
+  public void close() throws IOException {
+    isClosed = true;
+    serverSocket.close();
+    for (Socket socket : openSockets) {
+      closeQuietly(socket);
+    }
+    connections.shutdownNow();
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        openSockets.add(socket);
+        // A socket accepted while closing may have been missed by {@code close}.
+        if (isClosed) {
+          closeQuietly(socket);
+          return;
+        }
+        connections.execute(() -> serve(socket));
+      } catch (IOException e) {
+        // The server socket was closed.
+      }
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // The socket is being dropped anyway.
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket connection = socket;
+         DataInputStream in =
+             new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+         DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+      while (true) {
+        int count;
+        try {
+          count = in.readInt();
+        } catch (EOFException e) {
+          return;
+        }
+        if (count < 0 || count > MAX_ATTENDEES) {
+          throw new IOException("invalid attendee count " + count);
+        }
+        List<String> attendees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          attendees.add(in.readUTF());
+        }
+
+        long[] busy = getBusyTimes(attendees);
+        out.writeInt(busy.length);
+        for (long range : busy) {
+          out.writeLong(range);
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The coordinator went away or broke the protocol; there is nobody to report the error to.
+    } finally {
+      openSockets.remove(socket);
+    }
+  }
+
+  /**
+   * Merges the busy time of {@code attendees} into ranges that do not overlap or touch.
+   */
+  long[] getBusyTimes(Collection<String> attendees) {
+    List<Long> ranges = new ArrayList<>();
+    for (String attendee : attendees) {
+      for (TimeRange range : calendar.getBusyRanges(attendee)) {
+        ranges.add(PackedTimeRange.of(range));
+      }
+    }
+    long[] sorted = new long[ranges.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = ranges.get(i);
+    }
+    Arrays.sort(sorted);
+
+    int count = 0;
+    for (long range : sorted) {
+      int start = PackedTimeRange.start(range);
+      int end = PackedTimeRange.end(range);
+      if (count > 0 && start <= PackedTimeRange.end(sorted[count - 1])) {
+        int previousStart = PackedTimeRange.start(sorted[count - 1]);
+        end = Math.max(end, PackedTimeRange.end(sorted[count - 1]));
+        sorted[count - 1] = PackedTimeRange.fromStartEnd(previousStart, end, false);
+      } else {
+        sorted[count++] = range;
+      }
+    }
+    return Arrays.copyOf(sorted, count);
+  }
+
+  /**
+   * Runs a worker in its own process, for example:
+   *
+   * <pre>
+   *   java -cp target/classes com.google.sps.BusyWorker 0 4 [events.bin]
+   * </pre>
+   *
+   * <p>Serves the events of {@code Events.events}, or of the given {@code BinaryEventStore} file.
+   * Prints the port it listens on as the first line of its output, then runs until its input is
+   * closed.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      System.err.println("Usage: BusyWorker <partition> <partitions> [event store file]");
+      System.exit(1);
+    }
+
+    int partition = Integer.parseInt(args[0]);
+    int partitions = Integer.parseInt(args[1]);
+    try (BusyWorker worker = (args.length == 3)
+        ? start(BinaryEventStore.open(Paths.get(args[2])), partition, partitions)
+        : start(Arrays.asList(Events.events), partition, partitions)) {
+      System.out.println(worker.getPort());
+      System.out.flush();
+      while (System.in.read() >= 0) {
+        // Keep serving until the coordinator closes our input.
+      }
+    }
+  }
+}
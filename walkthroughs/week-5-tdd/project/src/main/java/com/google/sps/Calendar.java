@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A mutable store of events that keeps every attendee's busy time merged as events are added and
+ * removed, so that queries can read each attendee's timeline without sorting it again. Calendars
+ * are not thread-safe.
+ */
+public final class Calendar {
+  // Every event in the calendar, with the number of times it was added.
+  private final Map<Event, Integer> events = new HashMap<>();
+
+  // The busy time of every attendee, indexed by their id in the shared {@code AttendeeDictionary}.
+  // Attendees without any events have no timeline.
+  private BusyTimeline[] timelines = new BusyTimeline[0];
+
+  private int size = 0;
+
+  /**
+   * Creates an empty calendar.
+   */
+  public Calendar() {}
+
+  /**
+   * Creates a calendar holding {@code events}.
+   */
+  public Calendar(Collection<Event> events) {
+    for (Event event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds {@code event} to the calendar, marking its time as busy for all of its attendees.
+   */
+  public void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    events.merge(event, 1, Integer::sum);
+    size++;
+    for (int attendee : event.getAttendeeIds()) {
+      if (attendee >= timelines.length) {
+        timelines = Arrays.copyOf(timelines, Math.max(attendee + 1, timelines.length * 2));
+      }
+      if (timelines[attendee] == null) {
+        timelines[attendee] = new BusyTimeline();
+      }
+      timelines[attendee].add(event.getWhen());
+    }
+  }
+
+  /**
+   * Removes one occurrence of {@code event} from the calendar. Returns {@code false} if the
+   * calendar did not hold {@code event}.
+   */
+  public boolean removeEvent(Event event) {
+    Integer count = events.get(event);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      events.remove(event);
+    } else {
+      events.put(event, count - 1);
+    }
+    size--;
+
+    for (int attendee : event.getAttendeeIds()) {
+      timelines[attendee].remove(event.getWhen());
+      if (timelines[attendee].isEmpty()) {
+        timelines[attendee] = null;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of events in the calendar, counting duplicates.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the merged busy ranges of {@code attendee}, sorted by start time. No two of the
+   * returned ranges overlap or touch.
+   */
+  public Collection<TimeRange> getBusyRanges(String attendee) {
+    return getBusyRanges(AttendeeDictionary.getInstance().lookup(attendee));
+  }
+
+  /**
+   * Returns the merged busy ranges of the attendee with the given id in the shared
+   * {@code AttendeeDictionary}, sorted by start time.
+   */
+  Collection<TimeRange> getBusyRanges(int attendee) {
+    if (attendee < 0 || attendee >= timelines.length || timelines[attendee] == null) {
+      return Collections.emptyList();
+    }
+    return timelines[attendee].getMergedRanges();
+  }
+}
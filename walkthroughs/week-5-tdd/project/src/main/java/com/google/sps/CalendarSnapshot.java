@@ -0,0 +1,212 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the events in an {@code EventRepository} at one version, with every
+ * attendee's busy time already sorted and merged. Snapshots never change once they are published,
+ * so any number of threads can query the same snapshot without locking.
+ */
+public final class CalendarSnapshot {
+  private static final long[] NO_RANGES = new long[0];
+
+  /** The snapshot of a repository that has never been changed. */
+  static final CalendarSnapshot EMPTY =
+      new CalendarSnapshot(0, Collections.<Event>emptyList(), new long[0][], new long[0][]);
+
+  private final long version;
+  private final List<Event> events;
+
+  // The packed ranges of every event of each attendee, indexed by their id in the shared
+  // {@code AttendeeDictionary} and sorted by start time. Attendees without events have no array.
+  private final long[][] ranges;
+
+  // The same ranges merged so that no two of them overlap or touch.
+  private final long[][] merged;
+
+  private CalendarSnapshot(long version, List<Event> events, long[][] ranges, long[][] merged) {
+    this.version = version;
+    this.events = events;
+    this.ranges = ranges;
+    this.merged = merged;
+  }
+
+  /**
+   * Returns the version of the snapshot. Every change published by the repository increases it.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a read-only list of the events in the snapshot, counting duplicates.
+   */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the number of events in the snapshot, counting duplicates.
+   */
+  public int size() {
+    return events.size();
+  }
+
+  /**
+   * Returns the merged busy ranges of {@code attendee}, sorted by start time. No two of the
+   * returned ranges overlap or touch.
+   */
+  public Collection<TimeRange> getBusyRanges(String attendee) {
+    long[] busy = getBusyTimes(AttendeeDictionary.getInstance().lookup(attendee));
+    Collection<TimeRange> result = new ArrayList<TimeRange>(busy.length);
+    for (long range : busy) {
+      result.add(PackedTimeRange.toTimeRange(range));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the packed, merged busy ranges of the attendee with the given id in the shared
+   * {@code AttendeeDictionary}, sorted by start time. The array must not be modified.
+   */
+  long[] getBusyTimes(int attendee) {
+    if (attendee < 0 || attendee >= merged.length || merged[attendee] == null) {
+      return NO_RANGES;
+    }
+    return merged[attendee];
+  }
+
+  /**
+   * Creates the next snapshot by adding and removing events. Removing an event that the snapshot
+   * does not hold does nothing. Only the timelines of attendees of the changed events are rebuilt;
+   * every other attendee's arrays are shared with this snapshot.
+   */
+  CalendarSnapshot apply(Collection<Event> added, Collection<Event> removed) {
+    // Drops one occurrence of each removed event in a single pass over the events.
+    Map<Event, Integer> toRemove = new HashMap<>();
+    for (Event event : removed) {
+      toRemove.merge(event, 1, Integer::sum);
+    }
+    List<Event> nextEvents = new ArrayList<>(events.size() + added.size());
+    List<Event> actuallyRemoved = new ArrayList<>();
+    for (Event event : events) {
+      Integer count = toRemove.get(event);
+      if (count == null) {
+        nextEvents.add(event);
+        continue;
+      }
+      actuallyRemoved.add(event);
+      if (count == 1) {
+        toRemove.remove(event);
+      } else {
+        toRemove.put(event, count - 1);
+      }
+    }
+    nextEvents.addAll(added);
+
+    // Groups the changed ranges by attendee.
+    Map<Integer, List<Long>> addedRanges = groupByAttendee(added);
+    Map<Integer, List<Long>> removedRanges = groupByAttendee(actuallyRemoved);
+    int length = ranges.length;
+    for (int attendee : addedRanges.keySet()) {
+      length = Math.max(length, attendee + 1);
+    }
+
+    long[][] nextRanges = Arrays.copyOf(ranges, length);
+    long[][] nextMerged = Arrays.copyOf(merged, length);
+    Collection<Integer> changed = new ArrayList<>(addedRanges.keySet());
+    for (int attendee : removedRanges.keySet()) {
+      if (!addedRanges.containsKey(attendee)) {
+        changed.add(attendee);
+      }
+    }
+    for (int attendee : changed) {
+      long[] attendeeRanges = update(nextRanges[attendee],
+          addedRanges.getOrDefault(attendee, Collections.<Long>emptyList()),
+          removedRanges.getOrDefault(attendee, Collections.<Long>emptyList()));
+      nextRanges[attendee] = attendeeRanges;
+      nextMerged[attendee] = (attendeeRanges == null) ? null : merge(attendeeRanges);
+    }
+
+    return new CalendarSnapshot(version + 1, Collections.unmodifiableList(nextEvents), nextRanges,
+        nextMerged);
+  }
+
+  private static Map<Integer, List<Long>> groupByAttendee(Collection<Event> events) {
+    Map<Integer, List<Long>> result = new HashMap<>();
+    for (Event event : events) {
+      long range = PackedTimeRange.of(event.getWhen());
+      for (int attendee : event.getAttendeeIds()) {
+        result.computeIfAbsent(attendee, id -> new ArrayList<>()).add(range);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new sorted array of {@code old} with {@code added} and without one occurrence of each
+   * of {@code removed}, or {@code null} if nothing is left.
+   */
+  private static long[] update(long[] old, List<Long> added, List<Long> removed) {
+    int oldLength = (old == null) ? 0 : old.length;
+    long[] result = new long[oldLength + added.size()];
+    if (old != null) {
+      System.arraycopy(old, 0, result, 0, oldLength);
+    }
+    for (int i = 0; i < added.size(); i++) {
+      result[oldLength + i] = added.get(i);
+    }
+    Arrays.sort(result);
+
+    // Every removed range is known to be present, since its event was in the snapshot.
+    int length = result.length;
+    for (long range : removed) {
+      int index = Arrays.binarySearch(result, 0, length, range);
+      System.arraycopy(result, index + 1, result, index, length - index - 1);
+      length--;
+    }
+    return (length == 0) ? null : Arrays.copyOf(result, length);
+  }
+
+  /**
+   * Merges sorted packed ranges so that no two of them overlap or touch.
+   */
+  private static long[] merge(long[] sorted) {
+    long[] result = new long[sorted.length];
+    int count = 0;
+    int start = PackedTimeRange.start(sorted[0]);
+    int end = PackedTimeRange.end(sorted[0]);
+    for (int i = 1; i < sorted.length; i++) {
+      int nextStart = PackedTimeRange.start(sorted[i]);
+      if (nextStart <= end) {
+        end = Math.max(end, PackedTimeRange.end(sorted[i]));
+        continue;
+      }
+      result[count++] = PackedTimeRange.fromStartEnd(start, end, false);
+      start = nextStart;
+      end = PackedTimeRange.end(sorted[i]);
+    }
+    result[count++] = PackedTimeRange.fromStartEnd(start, end, false);
+    return Arrays.copyOf(result, count);
+  }
+}
@@ -0,0 +1,245 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Finds double-booked attendees: every pair of events that share an attendee and whose times
+ * overlap, as decided by {@code TimeRange.overlaps}. The events are sorted once and then swept
+ * attendee by attendee, keeping the events that are still running in a heap ordered by end time.
+ * This runs in O(n log n + c) for n attendances and c conflicts, instead of checking every pair.
+ */
+public final class ConflictDetector {
+  /**
+   * Two events of the same attendee that overlap. {@code first} starts no later than
+   * {@code second}.
+   */
+  public static final class Conflict {
+    private final String attendee;
+    private final Event first;
+    private final Event second;
+
+    Conflict(String attendee, Event first, Event second) {
+      this.attendee = attendee;
+      this.first = first;
+      this.second = second;
+    }
+
+    /**
+     * Returns the attendee that is booked twice.
+     */
+    public String getAttendee() {
+      return attendee;
+    }
+
+    /**
+     * Returns the event that starts first.
+     */
+    public Event getFirst() {
+      return first;
+    }
+
+    /**
+     * Returns the event that starts second.
+     */
+    public Event getSecond() {
+      return second;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Conflict && attendee.equals(((Conflict) other).attendee)
+          && first.equals(((Conflict) other).first) && second.equals(((Conflict) other).second);
+    }
+
+    @Override
+    public int hashCode() {
+      return (attendee.hashCode() * 31 + first.hashCode()) * 31 + second.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Conflict: %s in %s and %s", attendee, first, second);
+    }
+  }
+
+  /**
+   * Orders events by start time and, among events with the same start, puts longer events first.
+   * An event without duration then always comes after the events it starts inside of.
+   */
+  private static final Comparator<Event> SWEEP_ORDER =
+      Comparator.<Event>comparingInt(event -> event.getWhen().start())
+          .thenComparing(Comparator.<Event>comparingInt(event -> event.getWhen().end()).reversed());
+
+  private ConflictDetector() {}
+
+  /**
+   * Passes every conflict in {@code events} to {@code consumer}, one attendee at a time. A pair of
+   * events that share several attendees is reported once for each of them.
+   */
+  public static void findConflicts(Collection<Event> events, Consumer<Conflict> consumer) {
+    Partitions partitions = new Partitions(events);
+    for (int attendee = 0; attendee < partitions.attendeeCount(); attendee++) {
+      partitions.sweep(attendee, consumer);
+    }
+  }
+
+  /**
+   * Like {@code findConflicts}, but sweeps the attendees in parallel on the common fork-join pool.
+   * {@code consumer} is called from several threads at once, so it must be thread-safe. The
+   * conflicts of each attendee are still passed in order.
+   */
+  public static void findConflictsInParallel(Collection<Event> events, Consumer<Conflict> consumer) {
+    Partitions partitions = new Partitions(events);
+    IntStream.range(0, partitions.attendeeCount()).parallel()
+        .forEach(attendee -> partitions.sweep(attendee, consumer));
+  }
+
+  /**
+   * The events of every attendee in sweep order, stored as one array of event numbers with an
+   * offset per attendee.
+   */
+  private static final class Partitions {
+    private final Event[] events;
+    private final int[] offsets;
+    private final int[] members;
+
+    Partitions(Collection<Event> collection) {
+      events = collection.toArray(new Event[0]);
+      Arrays.sort(events, SWEEP_ORDER);
+
+      // Counts the events of every attendee, then places them. Events are placed in sorted order,
+      // so every attendee's events stay sorted.
+      int attendeeCount = 0;
+      for (Event event : events) {
+        for (int attendee : event.getAttendeeIds()) {
+          attendeeCount = Math.max(attendeeCount, attendee + 1);
+        }
+      }
+      offsets = new int[attendeeCount + 1];
+      for (Event event : events) {
+        for (int attendee : event.getAttendeeIds()) {
+          offsets[attendee + 1]++;
+        }
+      }
+      for (int i = 0; i < attendeeCount; i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      members = new int[offsets[attendeeCount]];
+      int[] next = Arrays.copyOf(offsets, attendeeCount);
+      for (int i = 0; i < events.length; i++) {
+        for (int attendee : events[i].getAttendeeIds()) {
+          members[next[attendee]++] = i;
+        }
+      }
+    }
+
+    int attendeeCount() {
+      return offsets.length - 1;
+    }
+
+    /**
+     * Reports the conflicts of a single attendee. Each event conflicts with exactly the earlier
+     * events that have not ended by the time it starts.
+     */
+    void sweep(int attendee, Consumer<Conflict> consumer) {
+      int from = offsets[attendee];
+      int to = offsets[attendee + 1];
+      if (to - from < 2) {
+        return;
+      }
+
+      String name = AttendeeDictionary.getInstance().getName(attendee);
+      ActiveEvents active = new ActiveEvents(events, to - from);
+      for (int i = from; i < to; i++) {
+        Event event = events[members[i]];
+        int start = event.getWhen().start();
+        active.removeEndedBy(start);
+        for (int j = 0; j < active.size(); j++) {
+          consumer.accept(new Conflict(name, events[active.get(j)], event));
+        }
+        if (event.getWhen().duration() > 0) {
+          active.add(members[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * A binary min-heap of event numbers ordered by end time.
+   */
+  private static final class ActiveEvents {
+    private final Event[] events;
+    private final int[] heap;
+    private int size = 0;
+
+    ActiveEvents(Event[] events, int capacity) {
+      this.events = events;
+      this.heap = new int[capacity];
+    }
+
+    int size() {
+      return size;
+    }
+
+    int get(int index) {
+      return heap[index];
+    }
+
+    void add(int event) {
+      int child = size++;
+      while (child > 0) {
+        int parent = (child - 1) / 2;
+        if (end(heap[parent]) <= end(event)) {
+          break;
+        }
+        heap[child] = heap[parent];
+        child = parent;
+      }
+      heap[child] = event;
+    }
+
+    /**
+     * Removes every event that ends at or before {@code time}.
+     */
+    void removeEndedBy(int time) {
+      while (size > 0 && end(heap[0]) <= time) {
+        int last = heap[--size];
+        int parent = 0;
+        while (2 * parent + 1 < size) {
+          int child = 2 * parent + 1;
+          if (child + 1 < size && end(heap[child + 1]) < end(heap[child])) {
+            child++;
+          }
+          if (end(last) <= end(heap[child])) {
+            break;
+          }
+          heap[parent] = heap[child];
+          parent = child;
+        }
+        heap[parent] = last;
+      }
+    }
+
+    private int end(int event) {
+      return events[event].getWhen().end();
+    }
+  }
+}
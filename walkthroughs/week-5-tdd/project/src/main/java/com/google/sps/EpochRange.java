@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Class representing a span of time that is not tied to a single day. Times are counted in minutes
+ * since the Unix epoch (1970-01-01T00:00Z), and the end is the closing exclusive bound.
+ */
+public final class EpochRange {
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final long start;
+  private final long end;
+
+  private EpochRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the start of the range in minutes since the epoch.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the end of the range in minutes since the epoch. This ending value is the closing
+   * exclusive bound.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return end - start;
+  }
+
+  /**
+   * Checks if two ranges overlap. Like {@code TimeRange}, a range with no duration does not
+   * overlap anything.
+   */
+  public boolean overlaps(EpochRange other) {
+    return start < other.end && other.start < end && start < end && other.start < other.end;
+  }
+
+  /**
+   * Checks if this range completely contains another range.
+   */
+  public boolean contains(EpochRange other) {
+    return start <= other.start && other.end <= end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochRange && start == ((EpochRange) other).start
+        && end == ((EpochRange) other).end;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("EpochRange: [%d, %d)", start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} from {@code start} to {@code end} (exclusive).
+   */
+  public static EpochRange fromStartEnd(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+    return new EpochRange(start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} starting at {@code start} with a duration equal to
+   * {@code duration}.
+   */
+  public static EpochRange fromStartDuration(long start, long duration) {
+    return fromStartEnd(start, start + duration);
+  }
+
+  /**
+   * Creates the {@code EpochRange} covered by {@code when} on the day that is {@code epochDay}
+   * days after the epoch, such as {@code LocalDate.toEpochDay()}.
+   */
+  public static EpochRange fromDay(long epochDay, TimeRange when) {
+    return fromStartDuration(epochDay * MINUTES_PER_DAY + when.start(), when.duration());
+  }
+
+  /**
+   * Creates the {@code EpochRange} covering {@code days} whole days starting on the day that is
+   * {@code epochDay} days after the epoch.
+   */
+  public static EpochRange ofDays(long epochDay, int days) {
+    return fromStartDuration(epochDay * MINUTES_PER_DAY, (long) days * MINUTES_PER_DAY);
+  }
+}
@@ -14,19 +14,26 @@
 
 package com.google.sps;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * Event is the container class for when a specific group of people are meeting and are therefore
- * busy. Events are considered read-only.
+ * busy. Events are considered read-only. Use {@code EventAdapter} to convert them to JSON.
  */
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+  private final Recurrence recurrence;
+
+  // The ids of the attendees in the shared {@code AttendeeDictionary}, sorted in ascending order.
+  // The names are only kept once, in the dictionary.
+  private final int[] attendeeIds;
 
   /**
    * Creates a new event.
@@ -36,6 +43,19 @@ public final class Event {
    * @param attendees The collection of people attending the event. Must be non-null.
    */
   public Event(String title, TimeRange when, Collection<String> attendees) {
+    this(title, when, attendees, null);
+  }
+
+  /**
+   * Creates a new recurring event, taking place during {@code when} on every day of
+   * {@code recurrence}.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time of day when each occurrence takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param recurrence The days the event takes place on, or null for a single occurrence.
+   */
+  public Event(String title, TimeRange when, Collection<String> attendees, Recurrence recurrence) {
     if (title == null) {
       throw new IllegalArgumentException("title cannot be null");
     }
@@ -50,7 +70,8 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.recurrence = recurrence;
+    this.attendeeIds = AttendeeDictionary.getInstance().internAll(attendees);
   }
 
   /**
@@ -68,12 +89,26 @@ public final class Event {
   }
 
   /**
-   * Returns a read-only set of required attendees for this event.
+   * Returns the days this event repeats on, or {@code null} if it only takes place once.
+   */
+  public Recurrence getRecurrence() {
+    return recurrence;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event. The set is a view that looks the
+   * names up in the shared {@code AttendeeDictionary} as they are read.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    return new AttendeeSet(attendeeIds);
+  }
+
+  /**
+   * Returns the ids of the attendees for this event in the shared {@code AttendeeDictionary},
+   * sorted in ascending order. The returned array is shared and must not be modified.
+   */
+  int[] getAttendeeIds() {
+    return attendeeIds;
   }
 
   @Override
@@ -89,8 +124,55 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // Every event interns its attendees into the same dictionary, so two events have the same
+    // attendees exactly when their sorted ids are equal.
+    return a.title.equals(b.title) && a.when.equals(b.when)
+        && Arrays.equals(a.attendeeIds, b.attendeeIds)
+        && Objects.equals(a.recurrence, b.recurrence);
+  }
+
+  /**
+   * A read-only set of attendee names backed by sorted dictionary ids.
+   */
+  private static final class AttendeeSet extends AbstractSet<String> {
+    private final int[] ids;
+
+    AttendeeSet(int[] ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean contains(Object name) {
+      if (!(name instanceof String)) {
+        return false;
+      }
+      int id = AttendeeDictionary.getInstance().lookup((String) name);
+      return id != AttendeeDictionary.NOT_FOUND && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < ids.length;
+        }
+
+        @Override
+        public String next() {
+          if (next >= ids.length) {
+            throw new NoSuchElementException();
+          }
+          return AttendeeDictionary.getInstance().getName(ids[next++]);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return ids.length;
+    }
   }
 }
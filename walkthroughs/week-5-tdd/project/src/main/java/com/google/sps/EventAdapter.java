@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@code Event}s as JSON with their attendee names, in the shape Gson used when
+ * events kept their names: {@code title}, {@code when}, {@code attendees} and, for recurring
+ * events, {@code recurrence}. Events only hold dictionary ids, which mean nothing outside of this
+ * process, so they must be converted with this adapter rather than by reflection.
+ */
+public final class EventAdapter extends TypeAdapter<Event> {
+  // Time ranges and recurrences are plain values, so reflection writes them as before.
+  private static final Gson GSON = new Gson();
+
+  @Override
+  public void write(JsonWriter out, Event event) throws IOException {
+    if (event == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    out.name("title").value(event.getTitle());
+    out.name("when");
+    GSON.toJson(event.getWhen(), TimeRange.class, out);
+    out.name("attendees").beginArray();
+    for (String attendee : event.getAttendees()) {
+      out.value(attendee);
+    }
+    out.endArray();
+    if (event.getRecurrence() != null) {
+      out.name("recurrence");
+      GSON.toJson(event.getRecurrence(), Recurrence.class, out);
+    }
+    out.endObject();
+  }
+
+  /**
+   * Writes event {@code event} of {@code store} in the same shape as {@code write}, reading the
+   * mapped columns directly instead of decoding it into an {@code Event}. Stored events never
+   * recur.
+   */
+  public static void writeStoreEvent(JsonWriter out, BinaryEventStore store, int event)
+      throws IOException {
+    out.beginObject();
+    out.name("title").value(store.getTitle(event));
+    out.name("when");
+    TimeRange when = TimeRange.fromStartEnd(store.getStart(event), store.getEnd(event), false);
+    GSON.toJson(when, TimeRange.class, out);
+    out.name("attendees").beginArray();
+    for (int i = 0; i < store.getAttendeeCount(event); i++) {
+      out.value(store.getString(store.getAttendeeId(event, i)));
+    }
+    out.endArray();
+    out.endObject();
+  }
+
+  @Override
+  public Event read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    String title = null;
+    TimeRange when = null;
+    List<String> attendees = new ArrayList<>();
+    Recurrence recurrence = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "title":
+          title = in.nextString();
+          break;
+        case "when":
+          when = GSON.fromJson(in, TimeRange.class);
+          break;
+        case "attendees":
+          in.beginArray();
+          while (in.hasNext()) {
+            attendees.add(in.nextString());
+          }
+          in.endArray();
+          break;
+        case "recurrence":
+          recurrence = GSON.fromJson(in, Recurrence.class);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (title == null || when == null) {
+      throw new JsonParseException("an event needs a title and a time");
+    }
+    return new Event(title, when, attendees, recurrence);
+  }
+}
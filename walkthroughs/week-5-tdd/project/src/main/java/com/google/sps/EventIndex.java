@@ -0,0 +1,197 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * A store of events placed on an arbitrary horizon rather than a single day. Events are indexed by
+ * an interval tree, so finding the events in a window costs O(log n + k) for the k events that
+ * intersect it, no matter how large the calendar is. Recurring events are stored once, over the
+ * span from their first to their last occurrence, and only the occurrences inside a window are
+ * computed when the window is queried. Indexes are not thread-safe.
+ */
+public final class EventIndex {
+  private final IntervalTree<Event> events = new IntervalTree<>();
+
+  // Recurring events, each over the span from the start of its first occurrence to the end of its
+  // last one. Rules that repeat forever reach {@code Long.MAX_VALUE}.
+  private final IntervalTree<Event> rules = new IntervalTree<>();
+
+  /**
+   * Adds {@code event}, taking place during {@code when}. The event's own {@code TimeRange} is
+   * not used, so the same event can be added on several days.
+   */
+  public void add(EpochRange when, Event event) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    events.add(when.start(), when.end(), event);
+  }
+
+  /**
+   * Adds {@code event} on the day that is {@code epochDay} days after the epoch, at the time given
+   * by its {@code TimeRange}.
+   */
+  public void add(long epochDay, Event event) {
+    add(EpochRange.fromDay(epochDay, event.getWhen()), event);
+  }
+
+  /**
+   * Adds a recurring event, taking place at the time of day given by its {@code TimeRange} on
+   * every day of its {@code Recurrence}.
+   */
+  public void addRecurring(Event event) {
+    if (event == null || event.getRecurrence() == null) {
+      throw new IllegalArgumentException("event must be a recurring event");
+    }
+
+    rules.add(spanStart(event), spanEnd(event), event);
+  }
+
+  /**
+   * Removes a recurring event. Returns {@code false} if the index did not hold it.
+   */
+  public boolean removeRecurring(Event event) {
+    if (event == null || event.getRecurrence() == null) {
+      return false;
+    }
+    return rules.remove(spanStart(event), spanEnd(event), event);
+  }
+
+  /**
+   * Removes one occurrence of {@code event} taking place during {@code when}. Returns
+   * {@code false} if the index did not hold it.
+   */
+  public boolean remove(EpochRange when, Event event) {
+    return events.remove(when.start(), when.end(), event);
+  }
+
+  /**
+   * Returns the number of events in the index, counting each recurring event once.
+   */
+  public int size() {
+    return events.size() + rules.size();
+  }
+
+  /**
+   * Calls {@code consumer} with every event that overlaps {@code window} and the range it takes
+   * place during, in ascending order of start time.
+   */
+  public void forEachOverlapping(EpochRange window, BiConsumer<EpochRange, Event> consumer) {
+    forEachOverlapping(window,
+        (IntervalTree.Visitor<Event>) (start, end, event) ->
+            consumer.accept(EpochRange.fromStartEnd(start, end), event));
+  }
+
+  /**
+   * Visits every event that overlaps {@code window} without creating an {@code EpochRange} for
+   * each of them.
+   */
+  void forEachOverlapping(EpochRange window, IntervalTree.Visitor<Event> visitor) {
+    // Expands only the rules that can have an occurrence in the window.
+    PriorityQueue<Occurrences> occurrences = new PriorityQueue<>(
+        (a, b) -> Long.compare(a.start, b.start));
+    rules.forEachOverlapping(window.start(), window.end(), (start, end, event) -> {
+      Occurrences rule = new Occurrences(event, window);
+      if (rule.advance()) {
+        occurrences.add(rule);
+      }
+    });
+    if (occurrences.isEmpty()) {
+      events.forEachOverlapping(window.start(), window.end(), visitor);
+      return;
+    }
+
+    // Interleaves the occurrences with the single events, so that everything is still visited in
+    // ascending order of start time.
+    events.forEachOverlapping(window.start(), window.end(), (start, end, event) -> {
+      visitOccurrencesBefore(occurrences, start, visitor);
+      visitor.visit(start, end, event);
+    });
+    visitOccurrencesBefore(occurrences, Long.MAX_VALUE, visitor);
+  }
+
+  private static void visitOccurrencesBefore(
+      PriorityQueue<Occurrences> occurrences, long time, IntervalTree.Visitor<Event> visitor) {
+    while (!occurrences.isEmpty() && occurrences.peek().start < time) {
+      Occurrences rule = occurrences.poll();
+      visitor.visit(rule.start, rule.end, rule.event);
+      if (rule.advance()) {
+        occurrences.add(rule);
+      }
+    }
+  }
+
+  private static long spanStart(Event event) {
+    return event.getRecurrence().getStartDay() * EpochRange.MINUTES_PER_DAY
+        + event.getWhen().start();
+  }
+
+  private static long spanEnd(Event event) {
+    long lastDay = event.getRecurrence().lastDay();
+    if (lastDay == Recurrence.NO_UNTIL) {
+      return Long.MAX_VALUE;
+    }
+    // Rules without occurrences get an empty span, which overlaps nothing.
+    return Math.max(spanStart(event), lastDay * EpochRange.MINUTES_PER_DAY + event.getWhen().end());
+  }
+
+  /**
+   * Walks the occurrences of a recurring event that overlap a window, in order.
+   */
+  private static final class Occurrences {
+    final Event event;
+    final EpochRange window;
+    final PrimitiveIterator.OfLong days;
+    long start;
+    long end;
+
+    Occurrences(Event event, EpochRange window) {
+      this.event = event;
+      this.window = window;
+
+      // Only days whose occurrence could reach into the window are walked.
+      TimeRange when = event.getWhen();
+      long fromDay = Math.floorDiv(window.start() - when.end(), EpochRange.MINUTES_PER_DAY);
+      long toDay = Math.floorDiv(window.end() - 1 - when.start(), EpochRange.MINUTES_PER_DAY);
+      this.days = event.getRecurrence().days(fromDay, toDay);
+    }
+
+    /**
+     * Moves to the next occurrence that overlaps the window. Returns {@code false} if there is
+     * none.
+     */
+    boolean advance() {
+      TimeRange when = event.getWhen();
+      while (days.hasNext()) {
+        long dayStart = days.nextLong() * EpochRange.MINUTES_PER_DAY;
+        start = dayStart + when.start();
+        end = dayStart + when.end();
+        if (start < end && start < window.end() && end > window.start()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
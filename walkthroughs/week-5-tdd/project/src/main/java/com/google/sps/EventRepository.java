@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe store of events that publishes its contents as immutable
+ * {@code CalendarSnapshot}s. Readers take the current snapshot without locking and keep a
+ * consistent view for as long as they hold it. Writers are serialized and publish a whole batch of
+ * changes at once, so readers never see half of a batch.
+ */
+public final class EventRepository {
+  /**
+   * The changes of one call to {@code update}.
+   */
+  public static final class Batch {
+    private final List<Event> added = new ArrayList<>();
+    private final List<Event> removed = new ArrayList<>();
+
+    private Batch() {}
+
+    /**
+     * Adds {@code event} when the batch is published.
+     */
+    public Batch add(Event event) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+      added.add(event);
+      return this;
+    }
+
+    /**
+     * Removes one occurrence of {@code event} when the batch is published. Events that the
+     * repository does not hold are ignored.
+     */
+    public Batch remove(Event event) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+      removed.add(event);
+      return this;
+    }
+  }
+
+  private final AtomicReference<CalendarSnapshot> current =
+      new AtomicReference<>(CalendarSnapshot.EMPTY);
+
+  // Serializes writers so that no batch is built on top of a snapshot that is being replaced.
+  private final Object writeLock = new Object();
+
+  /**
+   * Creates an empty repository.
+   */
+  public EventRepository() {}
+
+  /**
+   * Creates a repository holding {@code events}.
+   */
+  public EventRepository(Collection<Event> events) {
+    update(batch -> events.forEach(batch::add));
+  }
+
+  /**
+   * Returns the latest published snapshot. Never blocks.
+   */
+  public CalendarSnapshot snapshot() {
+    return current.get();
+  }
+
+  /**
+   * Collects changes from {@code changes} and publishes them as a single new snapshot. Returns the
+   * published snapshot. Readers see either all of the changes or none of them.
+   */
+  public CalendarSnapshot update(Consumer<Batch> changes) {
+    Batch batch = new Batch();
+    changes.accept(batch);
+    synchronized (writeLock) {
+      CalendarSnapshot next = current.get().apply(batch.added, batch.removed);
+      current.set(next);
+      return next;
+    }
+  }
+
+  /**
+   * Adds {@code event} in a batch of its own.
+   */
+  public CalendarSnapshot add(Event event) {
+    return update(batch -> batch.add(event));
+  }
+
+  /**
+   * Removes one occurrence of {@code event} in a batch of its own.
+   */
+  public CalendarSnapshot remove(Event event) {
+    return update(batch -> batch.remove(event));
+  }
+}
@@ -0,0 +1,42 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Writes the events in {@code Events.events} to a {@code BinaryEventStore} file, for example:
+ *
+ * <pre>
+ *   java -cp target/classes com.google.sps.EventStoreConverter events.bin
+ * </pre>
+ */
+public final class EventStoreConverter {
+  private EventStoreConverter() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: EventStoreConverter <output file>");
+      System.exit(1);
+    }
+
+    Path path = Paths.get(args[0]);
+    BinaryEventStore.write(Arrays.asList(Events.events), path);
+    System.out.println("Wrote " + Events.events.length + " events to " + path);
+  }
+}
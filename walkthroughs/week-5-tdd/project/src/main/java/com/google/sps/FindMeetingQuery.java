@@ -16,12 +16,125 @@ package com.google.sps;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.*;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
 
+/**
+ * Finds the times when a meeting could take place. Queries reuse a buffer of blocked time ranges
+ * between calls, so a single instance must not be shared between threads. Every query adds the
+ * time it spends in each phase to this instance and to the process-wide {@code SchedulerStats}.
+ */
 public final class FindMeetingQuery {
+  private static final long[][] NO_WORKING_HOURS = new long[0][];
+
+  // The packed ranges of the day outside of each attendee's working hours, indexed by their id in
+  // the shared {@code AttendeeDictionary}. Attendees without working hours have no array.
+  private final long[][] workingHours;
+
+  // The packed blocked time ranges of the query being answered, reused between queries so that
+  // finding the blocking events does not allocate.
+  private long[] blockedTimes = new long[16];
+  private int blockedCount = 0;
+
+  // The time this instance has spent scanning for blocking events, sorting them and finding the
+  // free time between them, in nanoseconds.
+  private long scanNanos = 0;
+  private long sortNanos = 0;
+  private long extractNanos = 0;
+
+  // The queries of this instance that a {@code MeetingQueryCache} answered without running them.
+  private int cacheHits = 0;
+
+  private final SchedulerStats stats = SchedulerStats.getInstance();
+
+  // The layout of the boundaries swept by {@code queryQuorum}, below the time in the upper bits.
+  private static final long START_BIT = 1L << 31;
+  private static final long LOCAL_ID_MASK = START_BIT - 1;
+
+  /**
+   * Creates a query that treats every attendee as available for the whole day
+   */
+  public FindMeetingQuery() {
+    this.workingHours = NO_WORKING_HOURS;
+  }
+
+  /**
+   * Creates a query that only schedules attendees during their working hours. The hours are
+   * converted into blocked time ranges once, here, and then blocked like events
+   * @param {Map<String, WorkingHours>} workingHours The working hours of each attendee that has them
+   */
+  public FindMeetingQuery(Map<String, WorkingHours> workingHours) {
+    AttendeeDictionary dictionary = AttendeeDictionary.getInstance();
+    long[][] hours = NO_WORKING_HOURS;
+    for (Map.Entry<String, WorkingHours> entry : workingHours.entrySet()) {
+      int id = dictionary.intern(entry.getKey());
+      if (id >= hours.length) {
+        hours = Arrays.copyOf(hours, id + 1);
+      }
+      hours[id] = entry.getValue().getBlockedTimes();
+    }
+    this.workingHours = hours;
+  }
+
+  /**
+   * Returns the time every query of this instance has spent looking for blocking events
+   * @return long The time in nanoseconds
+   */
+  public long getScanNanos() {
+    return scanNanos;
+  }
+
+  /**
+   * Returns the time every query of this instance has spent sorting blocked time ranges
+   * @return long The time in nanoseconds
+   */
+  public long getSortNanos() {
+    return sortNanos;
+  }
+
+  /**
+   * Returns the time every query of this instance has spent finding the free time between blocked
+   * time ranges
+   * @return long The time in nanoseconds
+   */
+  public long getExtractNanos() {
+    return extractNanos;
+  }
+
+  /**
+   * Returns the blocked time ranges outside of an attendee's working hours
+   * @param {int} id The dictionary id of the attendee
+   * @return long[] The packed time ranges, or null if the attendee has no working hours. The array
+   *     is shared and must not be modified
+   */
+  long[] getWorkingHours(int id) {
+    return (id < workingHours.length) ? workingHours[id] : null;
+  }
+
+  /**
+   * Returns the number of queries run through a {@code MeetingQueryCache} on this instance that
+   * were answered from the cache
+   * @return int The number of cache hits
+   */
+  public int getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Counts a query that a {@code MeetingQueryCache} answered instead of this instance
+   */
+  void recordCacheHit() {
+    cacheHits++;
+  }
 
   /**
    * Queries a collection of available time ranges that could accommodate the meeting request
@@ -30,6 +143,411 @@ public final class FindMeetingQuery {
    * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
    */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    if (request.isQuorum()) {
+      return queryQuorum(events, request);
+    }
+    return query(request, attendees -> queryAllAttendees(events, request, attendees));
+  }
+
+  /**
+   * Queries the time ranges where at least {@code request.getMinAttendees()} of the required
+   * attendees are free for the whole meeting. Optional attendees are not considered. Sweeps the
+   * start and end of every blocking event once, so it runs in O(E log E) for E blocking events
+   * without looking at subsets of attendees
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryQuorum(Collection<Event> events, MeetingRequest request) {
+    // Numbers the requested attendees 0 to n - 1 so that their busy state fits in an array
+    AttendeeDictionary dictionary = AttendeeDictionary.getInstance();
+    BitSet requestAttendees = dictionary.toBitSet(request.getAttendees());
+    Map<Integer, Integer> localIds = new HashMap<Integer, Integer>();
+    for (int id = requestAttendees.nextSetBit(0); id >= 0; id = requestAttendees.nextSetBit(id + 1)) {
+      localIds.put(id, localIds.size());
+    }
+
+    // Records when each requested attendee becomes busy and free again. Attendees without any
+    // events are never busy, so they are counted as free without being numbered.
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
+    int matched = 0;
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (when.duration() <= 0) {
+        continue;
+      }
+      int before = blockedCount;
+      for (int id : event.getAttendeeIds()) {
+        Integer localId = localIds.get(id);
+        if (localId != null) {
+          addBlockedTime(packBoundary(when.start(), true, localId));
+          addBlockedTime(packBoundary(when.end(), false, localId));
+        }
+      }
+      matched += (blockedCount > before) ? 1 : 0;
+    }
+
+    // Time outside of an attendee's working hours counts as busy, like an event
+    for (Map.Entry<Integer, Integer> entry : localIds.entrySet()) {
+      addWorkingHourBoundaries(entry.getKey(), entry.getValue());
+    }
+
+    recordScan(scanStart, localIds.size(), events.size(), matched);
+    return sweepQuorum(request, localIds.size());
+  }
+
+  /**
+   * Queries the time ranges where at least {@code request.getMinAttendees()} of the required
+   * attendees are free, reading the already merged busy time of each attendee from a calendar.
+   * Works like {@code queryQuorum} on a collection of events
+   * @param {Calendar} calendar The calendar holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryQuorum(Calendar calendar, MeetingRequest request) {
+    BitSet requestAttendees = AttendeeDictionary.getInstance().toBitSet(request.getAttendees());
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
+    int localCount = 0;
+    int busyRanges = 0;
+    for (int id = requestAttendees.nextSetBit(0); id >= 0; id = requestAttendees.nextSetBit(id + 1)) {
+      // The ranges of one attendee never overlap, so each is a boundary of its own
+      int localId = localCount++;
+      for (TimeRange range : calendar.getBusyRanges(id)) {
+        addBlockedTime(packBoundary(range.start(), true, localId));
+        addBlockedTime(packBoundary(range.end(), false, localId));
+        busyRanges++;
+      }
+      addWorkingHourBoundaries(id, localId);
+    }
+
+    recordScan(scanStart, localCount, busyRanges, busyRanges);
+    return sweepQuorum(request, localCount);
+  }
+
+  /**
+   * Queries the time ranges where at least {@code request.getMinAttendees()} of the required
+   * attendees are free, reading the events straight out of a memory-mapped store. Works like
+   * {@code queryQuorum} on a collection of events
+   * @param {BinaryEventStore} store The store holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryQuorum(BinaryEventStore store, MeetingRequest request) {
+    // Numbers the requested attendees 0 to n - 1. The store has its own dictionary, so events are
+    // matched by the attendee's id in the store and working hours by their shared id
+    AttendeeDictionary dictionary = AttendeeDictionary.getInstance();
+    Map<Integer, Integer> localIds = new HashMap<Integer, Integer>();
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
+    int localCount = 0;
+    for (String attendee : new LinkedHashSet<String>(request.getAttendees())) {
+      int localId = localCount++;
+      int storeId = store.lookup(attendee);
+      if (storeId != BinaryEventStore.NOT_FOUND) {
+        localIds.put(storeId, localId);
+      }
+      int id = dictionary.lookup(attendee);
+      if (id != AttendeeDictionary.NOT_FOUND) {
+        addWorkingHourBoundaries(id, localId);
+      }
+    }
+
+    int matched = 0;
+    for (int event = 0; event < store.size(); event++) {
+      int start = store.getStart(event);
+      int end = store.getEnd(event);
+      if (end <= start) {
+        continue;
+      }
+      int before = blockedCount;
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        Integer localId = localIds.get(store.getAttendeeId(event, i));
+        if (localId != null) {
+          addBlockedTime(packBoundary(start, true, localId));
+          addBlockedTime(packBoundary(end, false, localId));
+        }
+      }
+      matched += (blockedCount > before) ? 1 : 0;
+    }
+
+    recordScan(scanStart, localCount, store.size(), matched);
+    return sweepQuorum(request, localCount);
+  }
+
+  /**
+   * Appends the times an attendee becomes busy and free again outside of their working hours to
+   * the blocked time buffer
+   * @param {int} id The dictionary id of the attendee
+   * @param {int} localId The number of the attendee within the request
+   */
+  private void addWorkingHourBoundaries(int id, int localId) {
+    if (id < workingHours.length && workingHours[id] != null) {
+      for (long range : workingHours[id]) {
+        addBlockedTime(packBoundary(PackedTimeRange.start(range), true, localId));
+        addBlockedTime(packBoundary(PackedTimeRange.end(range), false, localId));
+      }
+    }
+  }
+
+  /**
+   * Sorts the boundaries in the blocked time buffer and sweeps them, keeping the time ranges where
+   * enough of the required attendees are free
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {int} localCount The number of attendees numbered within the request
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  private Collection<TimeRange> sweepQuorum(MeetingRequest request, int localCount) {
+    // Sorts the boundaries by time, with every end at a time before every start at that time
+    sortBlockedTimes();
+
+    // An attendee stays busy while they are in at least one event, so double-booked attendees
+    // are only counted once
+    long extractStart = System.nanoTime();
+    int[] depth = new int[localCount];
+    int attendeeCount = request.getAttendees().size();
+    int quorum = request.getMinAttendees();
+    int duration = (int) request.getDuration();
+    int busyCount = 0;
+    int windowStart = TimeRange.START_OF_DAY;
+    boolean isOpen = true;
+    Collection<TimeRange> result = new ArrayList<TimeRange>();
+
+    for (int i = 0; i < blockedCount; ) {
+      int time = (int) (blockedTimes[i] >> 32);
+      for (; i < blockedCount && (int) (blockedTimes[i] >> 32) == time; i++) {
+        int localId = (int) (blockedTimes[i] & LOCAL_ID_MASK);
+        if ((blockedTimes[i] & START_BIT) != 0) {
+          busyCount += (depth[localId]++ == 0) ? 1 : 0;
+        } else {
+          busyCount -= (--depth[localId] == 0) ? 1 : 0;
+        }
+      }
+
+      boolean isNowOpen = attendeeCount - busyCount >= quorum;
+      if (isOpen && !isNowOpen && fits(windowStart, time, duration)) {
+        result.add(TimeRange.fromStartEnd(windowStart, time, false));
+      }
+      if (!isOpen && isNowOpen) {
+        windowStart = Math.max(time, TimeRange.START_OF_DAY);
+      }
+      isOpen = isNowOpen;
+    }
+
+    // Takes into account the final possible available time range
+    if (isOpen && fits(windowStart, TimeRange.END_OF_DAY + 1, duration)) {
+      result.add(TimeRange.fromStartEnd(windowStart, TimeRange.END_OF_DAY, true));
+    }
+    recordExtract(extractStart);
+    return result;
+  }
+
+  /**
+   * Packs the time an attendee becomes busy or free into a long that sorts by time, with ends
+   * before starts at the same time
+   * @param {int} time The time of the boundary in minutes
+   * @param {boolean} isStart Whether the attendee becomes busy rather than free
+   * @param {int} localId The number of the attendee within the request
+   * @return long The packed boundary
+   */
+  private static long packBoundary(int time, boolean isStart, int localId) {
+    return ((long) time << 32) | (isStart ? START_BIT : 0) | localId;
+  }
+
+  /**
+   * Queries a collection of available time ranges that could accommodate the meeting request,
+   * reading the already merged busy time of each attendee from a calendar
+   * @param {Calendar} calendar The calendar holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> query(Calendar calendar, MeetingRequest request) {
+    if (request.isQuorum()) {
+      return queryQuorum(calendar, request);
+    }
+    return query(request, attendees -> queryAllAttendees(calendar, request, attendees));
+  }
+
+  /**
+   * Queries a collection of available time ranges that could accommodate the meeting request from
+   * an immutable snapshot, which other threads may keep reading while the repository changes
+   * @param {CalendarSnapshot} snapshot The snapshot holding the events that may conflict with the
+   *     request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> query(CalendarSnapshot snapshot, MeetingRequest request) {
+    if (request.isQuorum()) {
+      return queryQuorum(snapshot.getEvents(), request);
+    }
+    return query(request, attendees -> queryAllAttendees(snapshot, request, attendees));
+  }
+
+  /**
+   * Queries a collection of available time ranges from a collection of attendees, reading the
+   * already merged busy time of each attendee from a snapshot
+   * @param {CalendarSnapshot} snapshot The snapshot holding the events that may conflict with the
+   *     request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Collection<String>} attendees The collection of attendees
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryAllAttendees(CalendarSnapshot snapshot, MeetingRequest request, Collection<String> attendees) {
+    BitSet requestAttendees = AttendeeDictionary.getInstance().toBitSet(attendees);
+
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
+    int attendeesWithEvents = 0;
+    for (int id = requestAttendees.nextSetBit(0); id >= 0; id = requestAttendees.nextSetBit(id + 1)) {
+      long[] busyTimes = snapshot.getBusyTimes(id);
+      for (long range : busyTimes) {
+        addBlockedTime(range);
+      }
+      attendeesWithEvents += (busyTimes.length > 0) ? 1 : 0;
+    }
+
+    // Each busy range of the snapshot is already merged, so every one that is read is a match
+    int busyRanges = blockedCount;
+    boolean hasWorkingHours = addWorkingHours(requestAttendees);
+    recordScan(scanStart, requestAttendees.cardinality(), busyRanges, busyRanges);
+
+    // A single attendee's busy time is already sorted
+    if (attendeesWithEvents > 1 || hasWorkingHours) {
+      sortBlockedTimes();
+    }
+    return extractAvailableRanges(request.getDuration());
+  }
+
+  /**
+   * Queries a collection of available time ranges that could accommodate the meeting request,
+   * reading the events straight out of a memory-mapped store without decoding them
+   * @param {BinaryEventStore} store The store holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> query(BinaryEventStore store, MeetingRequest request) {
+    if (request.isQuorum()) {
+      return queryQuorum(store, request);
+    }
+    return query(request, attendees -> queryAllAttendees(store, request, attendees));
+  }
+
+  /**
+   * Queries a collection of available time ranges from a collection of attendees, scanning the
+   * columns of a memory-mapped store
+   * @param {BinaryEventStore} store The store holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Collection<String>} attendees The collection of attendees
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryAllAttendees(BinaryEventStore store, MeetingRequest request, Collection<String> attendees) {
+    // The store has its own dictionary, so the attendees are looked up there
+    BitSet requestAttendees = new BitSet();
+    for (String attendee : attendees) {
+      int id = store.lookup(attendee);
+      if (id != BinaryEventStore.NOT_FOUND) {
+        requestAttendees.set(id);
+      }
+    }
+
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
+    for (int event = 0; event < store.size(); event++) {
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        if (requestAttendees.get(store.getAttendeeId(event, i))) {
+          int start = store.getStart(event);
+          addBlockedTime(PackedTimeRange.fromStartEnd(start, store.getEnd(event), false));
+          break;
+        }
+      }
+    }
+    int matched = blockedCount;
+    BitSet dictionaryAttendees = AttendeeDictionary.getInstance().toBitSet(attendees);
+    addWorkingHours(dictionaryAttendees);
+    recordScan(scanStart, dictionaryAttendees.cardinality(), store.size(), matched);
+
+    // Sorts the blocked time ranges by start time. Packed ranges sort by start as plain longs.
+    sortBlockedTimes();
+
+    return extractAvailableRanges(request.getDuration());
+  }
+
+  /**
+   * Queries the available time ranges within a window of any length, such as the next two weeks.
+   * Only the events that intersect the window are read from the index. Working hours are not
+   * applied to windows, and quorum requests are not supported
+   * @param {EventIndex} index The index holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {EpochRange} window The span of time the meeting must take place in
+   * @return Collection<EpochRange> The time ranges within the window that could accommodate the
+   *     meeting request
+   */
+  public Collection<EpochRange> query(EventIndex index, MeetingRequest request, EpochRange window) {
+    checkNotQuorum(request);
+    return query(request, attendees -> queryAllAttendees(index, request, attendees, window));
+  }
+
+  /**
+   * Queries the time ranges when the attendees are free and a room with a seat for each of them
+   * is free too. Each part of the attendees' free time goes to the smallest room that is free for
+   * the meeting during it, so the free time of the attendees is intersected with the free time of
+   * the rooms in order of capacity. Quorum requests are not supported, since every attendee needs
+   * a seat
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {RoomIndex} rooms The rooms the meeting could take place in
+   * @return Collection<RoomBooking> The time ranges and rooms that could accommodate the meeting
+   *     request
+   */
+  public Collection<RoomBooking> query(Collection<Event> events, MeetingRequest request, RoomIndex rooms) {
+    checkNotQuorum(request);
+    return query(request, attendees -> queryAllAttendees(events, request, attendees, rooms));
+  }
+
+  /**
+   * Queries the time ranges and rooms from a collection of attendees, intersecting the free time
+   * of the attendees with the free time of the best-fitting rooms
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Collection<String>} attendees The collection of attendees, each needing a seat
+   * @param {RoomIndex} rooms The rooms the meeting could take place in
+   * @return Collection<RoomBooking> The time ranges and rooms that could accommodate the meeting
+   *     request
+   */
+  public Collection<RoomBooking> queryAllAttendees(Collection<Event> events, MeetingRequest request,
+      Collection<String> attendees, RoomIndex rooms) {
+    collectBlockedTimes(events, attendees);
+    int seats = new HashSet<String>(attendees).size();
+    long duration = request.getDuration();
+
+    Collection<RoomBooking> result = new ArrayList<RoomBooking>();
+    forEachAvailableRange(blockedTimes, blockedCount, duration, (start, end) -> {
+      rooms.bookBestFit(seats, start, end, duration, result);
+      return true;
+    });
+    return result;
+  }
+
+  /**
+   * Rejects quorum requests on the paths that can only answer with every attendee free, rather
+   * than silently ignoring {@code min_attendees}
+   * @param {MeetingRequest} request The request to check
+   */
+  private static void checkNotQuorum(MeetingRequest request) {
+    if (request.isQuorum()) {
+      throw new IllegalArgumentException("quorum requests are not supported");
+    }
+  }
+
+  /**
+   * Chooses between the time ranges that include the optional attendees and the ones that do not
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Function} queryAttendees Queries the time ranges for a collection of attendees
+   * @return Collection<T> The time ranges that could accommodate the meeting request
+   */
+  static <T> Collection<T> query(MeetingRequest request,
+      Function<Collection<String>, Collection<T>> queryAttendees) {
     Collection<String> attendeesWithOptional = new ArrayList<String>();
     Collection<String> attendeesWithoutOptional = new ArrayList<String>();
     
@@ -43,8 +561,8 @@ public final class FindMeetingQuery {
     }
 
     // Queries the time ranges for both collections
-    Collection<TimeRange> rangesWithOptional = queryAllAttendees(events, request, attendeesWithOptional);
-    Collection<TimeRange> rangesWithoutOptional = queryAllAttendees(events, request, attendeesWithoutOptional);
+    Collection<T> rangesWithOptional = queryAttendees.apply(attendeesWithOptional);
+    Collection<T> rangesWithoutOptional = queryAttendees.apply(attendeesWithoutOptional);
 
     // Use optional time ranges if there are no mandatory attendees
     if (request.getAttendees().isEmpty()) {
@@ -63,45 +581,444 @@ public final class FindMeetingQuery {
    * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
    */
   public Collection<TimeRange> queryAllAttendees(Collection<Event> events, MeetingRequest request, Collection<String> attendees) {
-    // Initializes and gets colllections that will be used locally to query
-    List<TimeRange> blockedTimes = new ArrayList<TimeRange>();
-    Collection<TimeRange> result = new ArrayList<TimeRange>();
-    Collection<String> requestAttendees = attendees;
+    collectBlockedTimes(events, attendees);
+    return extractAvailableRanges(request.getDuration());
+  }
+
+  /**
+   * Queries the available time ranges within a window from a collection of attendees
+   * @param {EventIndex} index The index holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Collection<String>} attendees The collection of attendees
+   * @param {EpochRange} window The span of time the meeting must take place in
+   * @return Collection<EpochRange> The time ranges within the window that could accommodate the
+   *     meeting request
+   */
+  public Collection<EpochRange> queryAllAttendees(EventIndex index, MeetingRequest request,
+      Collection<String> attendees, EpochRange window) {
+    WindowGapCollector collector = new WindowGapCollector(
+        AttendeeDictionary.getInstance().toBitSet(attendees), request.getDuration(), window);
+    index.forEachOverlapping(window, collector);
+    return collector.finish();
+  }
+
+  /**
+   * Builds an index of the free time of a group of attendees, for answering many "earliest slot of
+   * d minutes after t" questions about the same group without running a query for each
+   * @param {Collection<Event>} events The collection of events that may conflict with a meeting
+   * @param {Collection<String>} attendees The collection of attendees
+   * @return FreeSlotIndex The minutes of the day when none of the attendees is blocked
+   */
+  public FreeSlotIndex buildFreeSlotIndex(Collection<Event> events, Collection<String> attendees) {
+    collectBlockedTimes(events, attendees);
+    FreeSlotIndex index = new FreeSlotIndex();
+    for (int i = 0; i < blockedCount; i++) {
+      if (PackedTimeRange.duration(blockedTimes[i]) > 0) {
+        index.book(PackedTimeRange.toTimeRange(blockedTimes[i]));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Suggests the k best meeting slots for the request, walking the slots the ranking offers in each
+   * free gap of the day in order and stopping as soon as the ranking says no later slot can beat
+   * the slots found so far. Like {@code query}, optional attendees are only included if that
+   * leaves at least one slot. Quorum requests are not supported
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {MeetingRequest} request The request to suggest meeting slots for
+   * @param {int} k The maximum number of slots to suggest
+   * @param {SlotRanking} ranking The policy deciding which slots are best
+   * @return List<TimeRange> Up to k slots of exactly the requested duration, best first
+   */
+  public List<TimeRange> suggest(Collection<Event> events, MeetingRequest request, int k, SlotRanking ranking) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+
+    if (ranking == null) {
+      throw new IllegalArgumentException("ranking cannot be null");
+    }
+
+    checkNotQuorum(request);
+
+    Collection<String> attendeesWithOptional = new ArrayList<String>(request.getAttendees());
+    attendeesWithOptional.addAll(request.getOptionalAttendees());
+
+    List<TimeRange> suggestions = suggestAllAttendees(events, request, attendeesWithOptional, k, ranking);
+    if (suggestions.isEmpty() && !request.getAttendees().isEmpty()) {
+      suggestions = suggestAllAttendees(events, request, request.getAttendees(), k, ranking);
+    }
+    return suggestions;
+  }
+
+  /**
+   * Suggests the k best meeting slots for a collection of attendees
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {MeetingRequest} request The request to suggest meeting slots for
+   * @param {Collection<String>} attendees The collection of attendees
+   * @param {int} k The maximum number of slots to suggest
+   * @param {SlotRanking} ranking The policy deciding which slots are best
+   * @return List<TimeRange> Up to k slots of exactly the requested duration, best first
+   */
+  private List<TimeRange> suggestAllAttendees(Collection<Event> events, MeetingRequest request,
+      Collection<String> attendees, int k, SlotRanking ranking) {
+    collectBlockedTimes(events, attendees);
+    int duration = (int) request.getDuration();
+
+    // Keeps the k best candidates with the worst one on top, so it can be replaced cheaply
+    PriorityQueue<Candidate> best = new PriorityQueue<Candidate>(k, Collections.reverseOrder());
+    boolean[] isDone = {false};
+    forEachAvailableRange(blockedTimes, blockedCount, duration, (gapStart, gapEnd) -> {
+      // Slots are only scored until no later one can beat the worst of the k best
+      ranking.forEachStart(gapStart, gapEnd, duration, slotStart -> {
+        if (best.size() == k && ranking.lowerBound(slotStart) >= best.peek().score) {
+          isDone[0] = true;
+          return false;
+        }
+
+        Candidate candidate =
+            new Candidate(ranking.score(slotStart, gapStart, gapEnd, duration), slotStart);
+        if (best.size() < k) {
+          best.add(candidate);
+        } else if (candidate.compareTo(best.peek()) < 0) {
+          best.poll();
+          best.add(candidate);
+        }
+        return true;
+      });
+      return !isDone[0];
+    });
+
+    List<Candidate> ranked = new ArrayList<Candidate>(best);
+    Collections.sort(ranked);
+    List<TimeRange> result = new ArrayList<TimeRange>(ranked.size());
+    for (Candidate candidate : ranked) {
+      result.add(TimeRange.fromStartDuration(candidate.start, duration));
+    }
+    return result;
+  }
+
+  /**
+   * Fills the blocked time buffer with the time ranges of the events attended by any of the
+   * attendees, sorted by start time
+   * @param {Collection<Event>} events The collection of events that may conflict with the request
+   * @param {Collection<String>} attendees The collection of attendees
+   */
+  private void collectBlockedTimes(Collection<Event> events, Collection<String> attendees) {
+    BitSet requestAttendees = AttendeeDictionary.getInstance().toBitSet(attendees);
 
     // Finds the set of events that block time ranges for being a valid meeting time
+    long scanStart = System.nanoTime();
+    blockedCount = 0;
     for (Event event : events) {
-      Set<String> eventAttendees = event.getAttendees();
-      boolean isBlocked = eventAttendees.stream().anyMatch(attendee -> requestAttendees.contains(attendee));
-      if (isBlocked) {
-        blockedTimes.add(event.getWhen());
+      if (isBlocked(event.getAttendeeIds(), requestAttendees)) {
+        addBlockedTime(PackedTimeRange.of(event.getWhen()));
       }
     }
+    int matched = blockedCount;
+    addWorkingHours(requestAttendees);
+    recordScan(scanStart, requestAttendees.cardinality(), events.size(), matched);
 
-    // Sorts the blocked time ranges by start time
-    blockedTimes.sort((timeRange1, timeRange2) -> {
-      if (timeRange1.start() < timeRange2.start()) {
-        return -1;
-      } else {
-        return 1;
+    // Sorts the blocked time ranges by start time. Packed ranges sort by start as plain longs.
+    sortBlockedTimes();
+  }
+
+  /**
+   * Queries a collection of available time ranges from a collection of attendees, merging their
+   * already sorted busy time from a calendar instead of sorting every blocking event
+   * @param {Calendar} calendar The calendar holding the events that may conflict with the request
+   * @param {MeetingRequest} request The request to query available time ranges of
+   * @param {Collection<String>} attendees The collection of attendees
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting request
+   */
+  public Collection<TimeRange> queryAllAttendees(Calendar calendar, MeetingRequest request, Collection<String> attendees) {
+    // Each attendee's busy ranges are already sorted, so only their heads need to be compared
+    long scanStart = System.nanoTime();
+    PriorityQueue<PeekingIterator> heads = new PriorityQueue<PeekingIterator>(
+        Math.max(1, attendees.size()), (a, b) -> TimeRange.ORDER_BY_START.compare(a.peek(), b.peek()));
+    for (String attendee : attendees) {
+      Iterator<TimeRange> busyRanges = calendar.getBusyRanges(attendee).iterator();
+      if (busyRanges.hasNext()) {
+        heads.add(new PeekingIterator(busyRanges));
       }
+    }
+
+    blockedCount = 0;
+    while (!heads.isEmpty()) {
+      PeekingIterator head = heads.poll();
+      addBlockedTime(PackedTimeRange.of(head.next()));
+      if (head.hasNext()) {
+        heads.add(head);
+      }
+    }
+
+    int busyRanges = blockedCount;
+    BitSet requestAttendees = AttendeeDictionary.getInstance().toBitSet(attendees);
+    boolean hasWorkingHours = addWorkingHours(requestAttendees);
+    recordScan(scanStart, requestAttendees.cardinality(), busyRanges, busyRanges);
+
+    // Working hours are not part of the calendar, so they have to be sorted in
+    if (hasWorkingHours) {
+      sortBlockedTimes();
+    }
+    return extractAvailableRanges(request.getDuration());
+  }
+
+  /**
+   * Sorts the blocked time buffer by start time, timing the sort. Packed ranges sort by start as
+   * plain longs
+   */
+  private void sortBlockedTimes() {
+    long start = System.nanoTime();
+    Arrays.sort(blockedTimes, 0, blockedCount);
+    long nanos = System.nanoTime() - start;
+    sortNanos += nanos;
+    stats.recordSort(nanos);
+  }
+
+  /**
+   * Finds the gaps in the sorted blocked time buffer that are long enough for the meeting, timing
+   * the search and counting how many blocked time ranges were merged
+   * @param {long} duration The duration of the meeting in minutes
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting
+   */
+  private Collection<TimeRange> extractAvailableRanges(long duration) {
+    long start = System.nanoTime();
+    Collection<TimeRange> result = new ArrayList<TimeRange>();
+    int mergedCount = forEachAvailableRange(blockedTimes, blockedCount, duration, (gapStart, gapEnd) -> {
+      result.add(TimeRange.fromStartEnd(gapStart, gapEnd, false));
+      return true;
+    });
+    stats.recordMerge(blockedCount, mergedCount);
+    recordExtract(start);
+    return result;
+  }
+
+  /**
+   * Adds the time since a scan started to this instance and to the process-wide stats
+   * @param {long} start The value of {@code System.nanoTime()} when the scan started
+   * @param {int} attendeeCount The number of distinct attendees the scan looked for
+   * @param {int} scanned The number of events or busy ranges that were looked at
+   * @param {int} matched The number of them that blocked a requested attendee
+   */
+  private void recordScan(long start, int attendeeCount, int scanned, int matched) {
+    long nanos = System.nanoTime() - start;
+    scanNanos += nanos;
+    stats.recordScan(attendeeCount, scanned, matched, nanos);
+  }
+
+  /**
+   * Adds the time since finding the free time started to this instance and to the process-wide
+   * stats
+   * @param {long} start The value of {@code System.nanoTime()} when finding the free time started
+   */
+  private void recordExtract(long start) {
+    long nanos = System.nanoTime() - start;
+    extractNanos += nanos;
+    stats.recordExtract(nanos);
+  }
+
+  /**
+   * Appends a packed time range to the blocked time buffer, growing it if needed
+   * @param {long} range The packed time range that is blocked
+   */
+  private void addBlockedTime(long range) {
+    if (blockedCount == blockedTimes.length) {
+      blockedTimes = Arrays.copyOf(blockedTimes, blockedCount * 2);
+    }
+    blockedTimes[blockedCount++] = range;
+  }
+
+  /**
+   * Appends the time outside of the working hours of the requested attendees to the blocked time
+   * buffer, without sorting it
+   * @param {BitSet} requestAttendees The dictionary ids of the requested attendees
+   * @return boolean Whether any blocked time range was added
+   */
+  private boolean addWorkingHours(BitSet requestAttendees) {
+    boolean isAdded = false;
+    int limit = Math.min(workingHours.length, requestAttendees.length());
+    for (int id = requestAttendees.nextSetBit(0); id >= 0 && id < limit; id = requestAttendees.nextSetBit(id + 1)) {
+      if (workingHours[id] != null) {
+        for (long range : workingHours[id]) {
+          addBlockedTime(range);
+        }
+        isAdded = true;
+      }
+    }
+    return isAdded;
+  }
+
+  /**
+   * Checks whether any attendee of an event is one of the requested attendees
+   * @param {int[]} eventAttendees The dictionary ids of the event's attendees
+   * @param {BitSet} requestAttendees The dictionary ids of the requested attendees
+   * @return boolean Whether the event blocks the requested attendees
+   */
+  private static boolean isBlocked(int[] eventAttendees, BitSet requestAttendees) {
+    for (int attendee : eventAttendees) {
+      if (requestAttendees.get(attendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the gaps between blocked time ranges that are long enough for the meeting. Only the
+   * returned time ranges are allocated.
+   * @param {long[]} blockedTimes The packed blocked time ranges, sorted by start time
+   * @param {int} count The number of blocked time ranges to read from the array
+   * @param {long} duration The duration of the meeting in minutes
+   * @return Collection<TimeRange> The time ranges that could accommodate the meeting
+   */
+  static Collection<TimeRange> findAvailableRanges(long[] blockedTimes, int count, long duration) {
+    Collection<TimeRange> result = new ArrayList<TimeRange>();
+    forEachAvailableRange(blockedTimes, count, duration, (start, end) -> {
+      result.add(TimeRange.fromStartEnd(start, end, false));
+      return true;
     });
+    return result; 
+  }
 
+  /**
+   * Walks the gaps between blocked time ranges that are long enough for the meeting, in order
+   * @param {long[]} blockedTimes The packed blocked time ranges, sorted by start time
+   * @param {int} count The number of blocked time ranges to read from the array
+   * @param {long} duration The duration of the meeting in minutes
+   * @param {RangeVisitor} visitor Called with every gap until it returns false
+   * @return int The number of merged blocked time ranges walked before stopping
+   */
+  static int forEachAvailableRange(long[] blockedTimes, int count, long duration, RangeVisitor visitor) {
     // Greedily gets the next available time range by saving the end time of the last blocked time
     int lastEndTime = TimeRange.START_OF_DAY;
-    for (int i = 0; i < blockedTimes.size(); i++) {
-      int eventStart = blockedTimes.get(i).start();
-      int eventEnd = blockedTimes.get(i).end();
-      if (eventStart > lastEndTime && (int) request.getDuration() <= eventStart - lastEndTime) {
-        result.add(TimeRange.fromStartEnd(lastEndTime, eventStart, false));
+    int mergedCount = 0;
+    for (int i = 0; i < count; i++) {
+      int eventStart = PackedTimeRange.start(blockedTimes[i]);
+      int eventEnd = PackedTimeRange.end(blockedTimes[i]);
+      if (i == 0 || eventStart > lastEndTime) {
+        mergedCount++;
+      }
+      if (fits(lastEndTime, eventStart, duration)) {
+        if (!visitor.visit(lastEndTime, eventStart)) {
+          return mergedCount;
+        }
       }
       lastEndTime = (lastEndTime > eventEnd) ? lastEndTime : eventEnd;
     }
 
     // Takes into account the final possible availalbe 
-    if (lastEndTime < TimeRange.END_OF_DAY && (int) request.getDuration() <= (TimeRange.END_OF_DAY - lastEndTime)) {
-      result.add(TimeRange.fromStartEnd(lastEndTime, TimeRange.END_OF_DAY, true));
+    if (fits(lastEndTime, TimeRange.END_OF_DAY + 1, duration)) {
+      visitor.visit(lastEndTime, TimeRange.END_OF_DAY + 1);
     }
+    return mergedCount;
+  }
 
-    return result; 
+  /**
+   * Checks whether a meeting of {@code duration} minutes fits into the free range from
+   * {@code start} to {@code end} (exclusive). A range that reaches the end of the day is only
+   * measured up to {@code END_OF_DAY}, so the last minute of the day is never booked. Every finder
+   * of free time within a day uses this rule, so that they all agree near midnight.
+   */
+  static boolean fits(int start, int end, long duration) {
+    int usableEnd = Math.min(end, TimeRange.END_OF_DAY);
+    return start < usableEnd && duration <= usableEnd - start;
+  }
+
+  /**
+   * Receives the available time ranges found by {@code forEachAvailableRange}.
+   */
+  interface RangeVisitor {
+    /**
+     * Visits the available time range from start to end (exclusive). Returns false to stop.
+     */
+    boolean visit(int start, int end);
+  }
+
+  /**
+   * Finds the gaps between the blocking events of a window while the index visits them in order of
+   * start time, so that no list of blocking events has to be built or sorted.
+   */
+  private static final class WindowGapCollector implements IntervalTree.Visitor<Event> {
+    private final BitSet requestAttendees;
+    private final long duration;
+    private final EpochRange window;
+    private final Collection<EpochRange> result = new ArrayList<EpochRange>();
+    private long lastEndTime;
+
+    WindowGapCollector(BitSet requestAttendees, long duration, EpochRange window) {
+      this.requestAttendees = requestAttendees;
+      this.duration = duration;
+      this.window = window;
+      this.lastEndTime = window.start();
+    }
+
+    @Override
+    public void visit(long eventStart, long eventEnd, Event event) {
+      if (!isBlocked(event.getAttendeeIds(), requestAttendees)) {
+        return;
+      }
+      if (eventStart > lastEndTime && duration <= eventStart - lastEndTime) {
+        result.add(EpochRange.fromStartEnd(lastEndTime, eventStart));
+      }
+      lastEndTime = Math.max(lastEndTime, eventEnd);
+    }
+
+    Collection<EpochRange> finish() {
+      // Takes into account the final possible available time range
+      if (lastEndTime < window.end() && duration <= window.end() - lastEndTime) {
+        result.add(EpochRange.fromStartEnd(lastEndTime, window.end()));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A suggested slot and its score. Candidates with lower scores, then earlier starts, come first.
+   */
+  private static final class Candidate implements Comparable<Candidate> {
+    final long score;
+    final int start;
+
+    Candidate(long score, int start) {
+      this.score = score;
+      this.start = start;
+    }
+
+    @Override
+    public int compareTo(Candidate other) {
+      int byScore = Long.compare(score, other.score);
+      return byScore != 0 ? byScore : Integer.compare(start, other.start);
+    }
+  }
+
+  /**
+   * An iterator that can look at its next element without consuming it.
+   */
+  private static final class PeekingIterator implements Iterator<TimeRange> {
+    private final Iterator<TimeRange> iterator;
+    private TimeRange next;
+
+    PeekingIterator(Iterator<TimeRange> iterator) {
+      this.iterator = iterator;
+      this.next = iterator.next();
+    }
+
+    TimeRange peek() {
+      return next;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public TimeRange next() {
+      TimeRange current = next;
+      next = iterator.hasNext() ? iterator.next() : null;
+      return current;
+    }
   }
 }
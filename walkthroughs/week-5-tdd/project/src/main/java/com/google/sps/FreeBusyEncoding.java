@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact text encodings of a sorted list of non-overlapping time ranges, such as an attendee's
+ * merged busy time, for sending to the browser instead of a JSON object per range. Both encodings
+ * are base64, so they can be decoded with {@code atob}.
+ */
+public final class FreeBusyEncoding {
+  private static final int DAY_MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * The ways ranges can be encoded.
+   */
+  public enum Format {
+    /**
+     * Each range as two unsigned LEB128 varints: the minutes since the end of the previous range
+     * (or the start of the day) and the duration. A day with a few meetings takes a few bytes.
+     */
+    RUNS,
+
+    /**
+     * One bit per minute of the day, set while a range covers it, lowest minute in the lowest bit
+     * of the first byte. Always 1440 bits (180 bytes), however many ranges there are.
+     */
+    BITMAP
+  }
+
+  private FreeBusyEncoding() {}
+
+  /**
+   * Encodes {@code ranges}, which must be sorted by start time and must not overlap.
+   */
+  public static String encode(Format format, Collection<TimeRange> ranges) {
+    byte[] bytes = (format == Format.RUNS) ? encodeRuns(ranges) : encodeBitmap(ranges);
+    return Base64.getEncoder().encodeToString(bytes);
+  }
+
+  /**
+   * Decodes ranges encoded by {@code encode} with the same format. Bitmaps decode into the
+   * fewest ranges covering the same minutes, so touching ranges come back merged.
+   */
+  public static List<TimeRange> decode(Format format, String encoded) {
+    byte[] bytes = Base64.getDecoder().decode(encoded);
+    return (format == Format.RUNS) ? decodeRuns(bytes) : decodeBitmap(bytes);
+  }
+
+  private static byte[] encodeRuns(Collection<TimeRange> ranges) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(2 * ranges.size());
+    int lastEnd = TimeRange.START_OF_DAY;
+    for (TimeRange range : ranges) {
+      if (range.start() < lastEnd) {
+        throw new IllegalArgumentException("ranges must be sorted and must not overlap");
+      }
+      writeVarint(out, range.start() - lastEnd);
+      writeVarint(out, range.duration());
+      lastEnd = range.end();
+    }
+    return out.toByteArray();
+  }
+
+  private static List<TimeRange> decodeRuns(byte[] bytes) {
+    List<TimeRange> ranges = new ArrayList<TimeRange>();
+    int[] position = {0};
+    int lastEnd = TimeRange.START_OF_DAY;
+    while (position[0] < bytes.length) {
+      int start = lastEnd + readVarint(bytes, position);
+      int duration = readVarint(bytes, position);
+      ranges.add(TimeRange.fromStartDuration(start, duration));
+      lastEnd = start + duration;
+    }
+    return ranges;
+  }
+
+  private static byte[] encodeBitmap(Collection<TimeRange> ranges) {
+    BitSet minutes = new BitSet(DAY_MINUTES);
+    for (TimeRange range : ranges) {
+      int start = Math.max(range.start(), 0);
+      int end = Math.min(range.end(), DAY_MINUTES);
+      if (start < end) {
+        minutes.set(start, end);
+      }
+    }
+    // BitSet drops trailing zero bytes, so the array is padded back to the whole day.
+    byte[] bytes = new byte[DAY_MINUTES / Byte.SIZE];
+    byte[] used = minutes.toByteArray();
+    System.arraycopy(used, 0, bytes, 0, used.length);
+    return bytes;
+  }
+
+  private static List<TimeRange> decodeBitmap(byte[] bytes) {
+    if (bytes.length != DAY_MINUTES / Byte.SIZE) {
+      throw new IllegalArgumentException("a bitmap must cover the whole day");
+    }
+    BitSet minutes = BitSet.valueOf(bytes);
+    List<TimeRange> ranges = new ArrayList<TimeRange>();
+    for (int start = minutes.nextSetBit(0); start >= 0; start = minutes.nextSetBit(start)) {
+      int end = minutes.nextClearBit(start);
+      ranges.add(TimeRange.fromStartEnd(start, end, false));
+      start = end;
+    }
+    return ranges;
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  private static int readVarint(byte[] bytes, int[] position) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      if (position[0] >= bytes.length) {
+        throw new IllegalArgumentException("truncated varint");
+      }
+      byte b = bytes[position[0]++];
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("varint is too long");
+  }
+}
@@ -0,0 +1,205 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * The free minutes of a group of attendees over one day, answering "the earliest slot of at least
+ * d minutes starting at or after t" in O(log m) for the m minutes of the day. Booking or releasing
+ * a range also takes O(log m), so the index can be kept up to date as slots are booked instead of
+ * being rebuilt.
+ *
+ * <p>The index is a segment tree with a leaf per minute. Every node stores the longest run of free
+ * minutes in its span and the free runs touching either end, which is enough to find where a run
+ * of any length starts. Bookings are applied lazily, so a range update only touches O(log m)
+ * nodes. Indexes are not thread-safe.
+ */
+public final class FreeSlotIndex {
+  /** Returned by {@code earliestFit} when no slot is long enough. */
+  public static final int NOT_FOUND = -1;
+
+  // The pending assignment of a node's whole span, pushed down to its children when needed.
+  private static final byte NO_CHANGE = 0;
+  private static final byte SET_FREE = 1;
+  private static final byte SET_BUSY = 2;
+
+  private final int minutes = TimeRange.WHOLE_DAY.duration();
+
+  // The longest free run, the free run starting at the left end and the one ending at the right
+  // end of each node's span. The root is node 1 and the children of node i are 2i and 2i + 1.
+  private final int[] longest = new int[4 * minutes];
+  private final int[] prefix = new int[4 * minutes];
+  private final int[] suffix = new int[4 * minutes];
+  private final byte[] pending = new byte[4 * minutes];
+
+  // The free run that ends where the next node visited by {@code earliestFit} starts.
+  private int run;
+
+  /**
+   * Creates an index where the whole day is free.
+   */
+  public FreeSlotIndex() {
+    assign(1, minutes, true);
+  }
+
+  /**
+   * Marks {@code range} as busy, for example once a meeting has been booked in it.
+   */
+  public void book(TimeRange range) {
+    update(range, false);
+  }
+
+  /**
+   * Marks {@code range} as free again, for example once a meeting in it has been cancelled.
+   */
+  public void release(TimeRange range) {
+    update(range, true);
+  }
+
+  /**
+   * Returns the length of the longest run of free minutes.
+   */
+  public int longestFreeRun() {
+    return longest[1];
+  }
+
+  /**
+   * Returns the start of the earliest run of at least {@code duration} free minutes that starts at
+   * or after {@code after}, or {@code NOT_FOUND}. Like {@code FindMeetingQuery}, the meeting must
+   * end by {@code TimeRange.END_OF_DAY}.
+   */
+  public int earliestFit(int duration, int after) {
+    if (duration <= 0) {
+      throw new IllegalArgumentException("duration must be positive");
+    }
+
+    int from = Math.max(after, TimeRange.START_OF_DAY);
+    if (from >= minutes || longest[1] < duration) {
+      return NOT_FOUND;
+    }
+    run = 0;
+    int start = earliestFit(1, 0, minutes, from, duration);
+    // Every later fit ends later, so if the earliest one runs into the last minute, none fits.
+    if (start == NOT_FOUND || !FindMeetingQuery.fits(start, minutes, duration)) {
+      return NOT_FOUND;
+    }
+    return start;
+  }
+
+  private void update(TimeRange range, boolean free) {
+    int start = Math.max(range.start(), TimeRange.START_OF_DAY);
+    int end = Math.min(range.end(), minutes);
+    if (start < end) {
+      update(1, 0, minutes, start, end, free);
+    }
+  }
+
+  private void update(int node, int low, int high, int start, int end, boolean free) {
+    if (start <= low && high <= end) {
+      assign(node, high - low, free);
+      return;
+    }
+
+    push(node, low, high);
+    int middle = (low + high) >>> 1;
+    if (start < middle) {
+      update(2 * node, low, middle, start, end, free);
+    }
+    if (end > middle) {
+      update(2 * node + 1, middle, high, start, end, free);
+    }
+    pull(node, low, high);
+  }
+
+  /**
+   * Visits the nodes covering {@code from} to the end of the day from left to right, carrying the
+   * free run that ends at each of them. A fit starts either in that run, inside the node, or
+   * further right.
+   */
+  private int earliestFit(int node, int low, int high, int from, int duration) {
+    if (high <= from) {
+      return NOT_FOUND;
+    }
+
+    if (from <= low) {
+      if (run + prefix[node] >= duration) {
+        return low - run;
+      }
+      if (longest[node] >= duration) {
+        return leftmostFit(node, low, high, duration);
+      }
+      run = (prefix[node] == high - low) ? run + (high - low) : suffix[node];
+      return NOT_FOUND;
+    }
+
+    push(node, low, high);
+    int middle = (low + high) >>> 1;
+    int result = earliestFit(2 * node, low, middle, from, duration);
+    if (result != NOT_FOUND) {
+      return result;
+    }
+    return earliestFit(2 * node + 1, middle, high, from, duration);
+  }
+
+  /**
+   * Finds the leftmost run of {@code duration} free minutes inside a node that holds one.
+   */
+  private int leftmostFit(int node, int low, int high, int duration) {
+    while (high - low > 1) {
+      push(node, low, high);
+      int middle = (low + high) >>> 1;
+      int left = 2 * node;
+      int right = left + 1;
+      if (longest[left] >= duration) {
+        node = left;
+        high = middle;
+      } else if (suffix[left] + prefix[right] >= duration) {
+        return middle - suffix[left];
+      } else {
+        node = right;
+        low = middle;
+      }
+    }
+    return low;
+  }
+
+  private void assign(int node, int length, boolean free) {
+    int value = free ? length : 0;
+    longest[node] = value;
+    prefix[node] = value;
+    suffix[node] = value;
+    pending[node] = free ? SET_FREE : SET_BUSY;
+  }
+
+  private void push(int node, int low, int high) {
+    if (pending[node] == NO_CHANGE) {
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    boolean free = pending[node] == SET_FREE;
+    assign(2 * node, middle - low, free);
+    assign(2 * node + 1, high - middle, free);
+    pending[node] = NO_CHANGE;
+  }
+
+  private void pull(int node, int low, int high) {
+    int middle = (low + high) >>> 1;
+    int left = 2 * node;
+    int right = left + 1;
+    longest[node] = Math.max(Math.max(longest[left], longest[right]),
+        suffix[left] + prefix[right]);
+    prefix[node] = (prefix[left] == middle - low) ? prefix[left] + prefix[right] : prefix[left];
+    suffix[node] = (suffix[right] == high - middle) ? suffix[right] + suffix[left] : suffix[right];
+  }
+}
@@ -0,0 +1,632 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the events of iCalendar (.ics) files into an {@code EventIndex}. Files are read one line at
+ * a time and each single event is added as soon as its {@code END:VEVENT} is read, so only the
+ * event being read and the recurring events are held in memory no matter how large the file is.
+ * Recurring events are added at the end of the file, since the exceptions to them may come later.
+ *
+ * <p>The {@code SUMMARY}, {@code DTSTART}, {@code DTEND} or {@code DURATION}, {@code ATTENDEE},
+ * {@code RRULE}, {@code EXDATE}, {@code UID} and {@code RECURRENCE-ID} of each {@code VEVENT} are
+ * read, and everything else is skipped. Times are converted to UTC. Daily and weekly rules become
+ * a {@code Recurrence}; any other rule cannot be expressed by one, so only the first occurrence of
+ * its event is imported. An event with a {@code RECURRENCE-ID} replaces that occurrence of the
+ * recurring event with the same {@code UID}, and is imported as a single event. Events marked
+ * {@code TRANSP:TRANSPARENT} or {@code STATUS:CANCELLED} do not block time and are skipped, as are
+ * events without a start.
+ */
+public final class IcsImporter {
+  private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private final Sink sink;
+
+  // The number of the line being read, for error messages.
+  private int lineNumber = 0;
+
+  // The properties of the VEVENT being read. Nested components, such as alarms, are skipped.
+  private boolean inEvent = false;
+  private int nestedDepth = 0;
+  private String summary;
+  private long start;
+  private long end;
+  private long duration;
+  private boolean isAllDay;
+  private boolean isTransparent;
+  private boolean isCancelled;
+  private List<String> attendees = new ArrayList<String>();
+  private String rule;
+  private List<Long> excludedDays = new ArrayList<Long>();
+  private String uid;
+  private long recurrenceDay;
+  private int imported = 0;
+
+  // The recurring events read so far, and the days of the occurrences that other events replace,
+  // by UID.
+  private final List<RecurringEvent> recurringEvents = new ArrayList<RecurringEvent>();
+  private final Map<String, List<Long>> replacedDays = new HashMap<String, List<Long>>();
+
+  private IcsImporter(Sink sink) {
+    this.sink = sink;
+  }
+
+  /**
+   * A recurring event that is waiting for the end of the file.
+   */
+  private static final class RecurringEvent {
+    final String uid;
+    final String summary;
+    final List<String> attendees;
+    final long start;
+    final long length;
+    final List<Long> excludedDays;
+
+    // Null if the rule cannot be expressed by a {@code Recurrence}.
+    final Recurrence recurrence;
+
+    RecurringEvent(String uid, String summary, List<String> attendees, long start, long length,
+        List<Long> excludedDays, Recurrence recurrence) {
+      this.uid = uid;
+      this.summary = summary;
+      this.attendees = attendees;
+      this.start = start;
+      this.length = length;
+      this.excludedDays = excludedDays;
+      this.recurrence = recurrence;
+    }
+  }
+
+  /**
+   * Receives the imported events. Lets several files share an index by adding to it under a lock.
+   */
+  private interface Sink {
+    void add(EpochRange when, Event event);
+
+    void addRecurring(Event event);
+  }
+
+  /**
+   * Reads the events of one iCalendar stream into {@code index}. Returns the number of events
+   * that were added, counting each recurring event once. Throws {@code IllegalArgumentException}
+   * if a date, duration or rule cannot be read.
+   */
+  public static int read(BufferedReader reader, EventIndex index) throws IOException {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    return read(reader, new Sink() {
+      @Override
+      public void add(EpochRange when, Event event) {
+        index.add(when, event);
+      }
+
+      @Override
+      public void addRecurring(Event event) {
+        index.addRecurring(event);
+      }
+    });
+  }
+
+  private static int read(BufferedReader reader, Sink sink) throws IOException {
+    IcsImporter importer = new IcsImporter(sink);
+
+    // Unfolds long lines, which continue on the following lines after a single space or tab.
+    StringBuilder line = null;
+    for (String physical = reader.readLine(); physical != null; physical = reader.readLine()) {
+      importer.lineNumber++;
+      if (line != null && !physical.isEmpty()
+          && (physical.charAt(0) == ' ' || physical.charAt(0) == '\t')) {
+        line.append(physical, 1, physical.length());
+        continue;
+      }
+      if (line != null) {
+        importer.accept(line.toString());
+      }
+      line = new StringBuilder(physical);
+    }
+    if (line != null) {
+      importer.accept(line.toString());
+    }
+    importer.addRecurringEvents();
+    return importer.imported;
+  }
+
+  /**
+   * Reads the events of the UTF-8 iCalendar file at {@code path} into {@code index}. Returns the
+   * number of events that were added.
+   */
+  public static int read(Path path, EventIndex index) throws IOException {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return read(reader, index);
+    }
+  }
+
+  /**
+   * Reads several iCalendar files into {@code index} in parallel, one file per thread of the
+   * common fork-join pool. The index is not thread-safe, so every addition is made while holding
+   * its lock. Returns the number of events that were added.
+   */
+  public static int readAll(Collection<Path> paths, EventIndex index) throws IOException {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    Sink synchronizedSink = new Sink() {
+      @Override
+      public void add(EpochRange when, Event event) {
+        synchronized (index) {
+          index.add(when, event);
+        }
+      }
+
+      @Override
+      public void addRecurring(Event event) {
+        synchronized (index) {
+          index.addRecurring(event);
+        }
+      }
+    };
+    try {
+      return paths.parallelStream().mapToInt(path -> {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+          return read(reader, synchronizedSink);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).sum();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Handles one unfolded content line.
+   */
+  private void accept(String line) {
+    int colon = valueStart(line);
+    if (colon < 0) {
+      return;
+    }
+    String nameAndParameters = line.substring(0, colon);
+    String value = line.substring(colon + 1);
+    int semicolon = nameAndParameters.indexOf(';');
+    String name = (semicolon < 0 ? nameAndParameters : nameAndParameters.substring(0, semicolon))
+        .toUpperCase(Locale.ROOT);
+    String parameters = (semicolon < 0) ? "" : nameAndParameters.substring(semicolon + 1);
+
+    if (name.equals("BEGIN")) {
+      if (inEvent) {
+        nestedDepth++;
+      } else if (value.equalsIgnoreCase("VEVENT")) {
+        beginEvent();
+      }
+      return;
+    }
+    if (name.equals("END")) {
+      if (inEvent && nestedDepth > 0) {
+        nestedDepth--;
+      } else if (inEvent && value.equalsIgnoreCase("VEVENT")) {
+        endEvent();
+      }
+      return;
+    }
+    if (!inEvent || nestedDepth > 0) {
+      return;
+    }
+
+    switch (name) {
+      case "SUMMARY":
+        summary = unescape(value);
+        break;
+      case "DTSTART":
+        isAllDay = isDate(parameters, value);
+        start = parseMinutes(parameters, value);
+        break;
+      case "DTEND":
+        end = parseMinutes(parameters, value);
+        break;
+      case "DURATION":
+        duration = parseDuration(value);
+        break;
+      case "ATTENDEE":
+        attendees.add(attendeeName(parameters, value));
+        break;
+      case "RRULE":
+        rule = value;
+        break;
+      case "EXDATE":
+        for (String date : value.split(",")) {
+          excludedDays.add(parseDay(parameters, date));
+        }
+        break;
+      case "UID":
+        uid = value.trim();
+        break;
+      case "RECURRENCE-ID":
+        recurrenceDay = parseDay(parameters, value);
+        break;
+      case "TRANSP":
+        isTransparent = value.equalsIgnoreCase("TRANSPARENT");
+        break;
+      case "STATUS":
+        isCancelled = value.trim().equalsIgnoreCase("CANCELLED");
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void beginEvent() {
+    inEvent = true;
+    nestedDepth = 0;
+    summary = "";
+    start = Long.MIN_VALUE;
+    end = Long.MIN_VALUE;
+    duration = -1;
+    isAllDay = false;
+    isTransparent = false;
+    isCancelled = false;
+    attendees = new ArrayList<String>();
+    rule = null;
+    excludedDays = new ArrayList<Long>();
+    uid = null;
+    recurrenceDay = Long.MIN_VALUE;
+  }
+
+  private void endEvent() {
+    inEvent = false;
+
+    // The occurrence this event moves or cancels no longer takes place at its original time.
+    boolean isReplacement = recurrenceDay != Long.MIN_VALUE;
+    if (isReplacement && uid != null) {
+      replacedDays.computeIfAbsent(uid, key -> new ArrayList<Long>()).add(recurrenceDay);
+    }
+    if (start == Long.MIN_VALUE || isTransparent || isCancelled) {
+      return;
+    }
+
+    // Without an end or duration, an event lasts a day if it starts on a date and no time at all
+    // otherwise.
+    long length;
+    if (end != Long.MIN_VALUE) {
+      length = Math.max(0, end - start);
+    } else if (duration >= 0) {
+      length = duration;
+    } else {
+      length = isAllDay ? EpochRange.MINUTES_PER_DAY : 0;
+    }
+
+    // A replacement is a single event, even if it repeats the rule of the event it replaces.
+    if (rule != null && !isReplacement) {
+      long startDay = Math.floorDiv(start, EpochRange.MINUTES_PER_DAY);
+      recurringEvents.add(new RecurringEvent(uid, summary, attendees, start, length, excludedDays,
+          parseRule(rule, startDay)));
+      return;
+    }
+    addSingle(summary, attendees, start, length);
+  }
+
+  /**
+   * Adds the recurring events without the occurrences that are excluded or replaced by other
+   * events. Called once the whole file has been read.
+   */
+  private void addRecurringEvents() {
+    for (RecurringEvent event : recurringEvents) {
+      List<Long> skippedDays = new ArrayList<Long>(event.excludedDays);
+      if (event.uid != null) {
+        skippedDays.addAll(replacedDays.getOrDefault(event.uid, new ArrayList<Long>()));
+      }
+
+      long startDay = Math.floorDiv(event.start, EpochRange.MINUTES_PER_DAY);
+      if (event.recurrence == null) {
+        // Only the first occurrence is imported, unless it is skipped too.
+        if (!skippedDays.contains(startDay)) {
+          addSingle(event.summary, event.attendees, event.start, event.length);
+        }
+        continue;
+      }
+
+      long[] days = new long[skippedDays.size()];
+      for (int i = 0; i < days.length; i++) {
+        days[i] = skippedDays.get(i);
+      }
+      // Java 8 only has Math.floorMod(long, long), which returns a long.
+      int startMinute = (int) Math.floorMod(event.start, EpochRange.MINUTES_PER_DAY);
+      TimeRange when = TimeRange.fromStartDuration(startMinute, (int) event.length);
+      Recurrence recurrence =
+          (days.length == 0) ? event.recurrence : event.recurrence.withExcludedDays(days);
+      sink.addRecurring(new Event(event.summary, when, event.attendees, recurrence));
+      imported++;
+    }
+    recurringEvents.clear();
+  }
+
+  private void addSingle(String summary, List<String> attendees, long start, long length) {
+    // The index places single events by their epoch range, so the time of day only has to be
+    // representable.
+    int startMinute = (int) Math.floorMod(start, EpochRange.MINUTES_PER_DAY);
+    TimeRange when = TimeRange.fromStartDuration(
+        startMinute, (int) Math.min(length, TimeRange.WHOLE_DAY.duration()));
+    sink.add(EpochRange.fromStartDuration(start, length), new Event(summary, when, attendees));
+    imported++;
+  }
+
+  /**
+   * Returns the position of the colon between the name and parameters of a line and its value.
+   * Parameter values may contain colons inside double quotes.
+   */
+  private static int valueStart(String line) {
+    boolean isQuoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        isQuoted = !isQuoted;
+      } else if (c == ':' && !isQuoted) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the value of parameter {@code name}, without quotes, or null if it is not set.
+   */
+  private static String parameter(String parameters, String name) {
+    for (String parameter : parameters.split(";(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")) {
+      int equals = parameter.indexOf('=');
+      if (equals > 0 && parameter.substring(0, equals).equalsIgnoreCase(name)) {
+        String value = parameter.substring(equals + 1);
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+          value = value.substring(1, value.length() - 1);
+        }
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isDate(String parameters, String value) {
+    return "DATE".equalsIgnoreCase(parameter(parameters, "VALUE")) || value.indexOf('T') < 0;
+  }
+
+  /**
+   * Converts a date or date-time value into minutes since the epoch. Times ending in Z are in
+   * UTC, other times are in the zone of their TZID parameter, and times without one (floating
+   * times) or with an unknown zone are read as UTC. Dates start at midnight UTC.
+   */
+  private long parseMinutes(String parameters, String value) {
+    try {
+      if (isDate(parameters, value)) {
+        return LocalDate.parse(value.trim(), DATE).toEpochDay() * EpochRange.MINUTES_PER_DAY;
+      }
+      String local = value.trim();
+      ZoneId zone = ZoneOffset.UTC;
+      if (local.endsWith("Z") || local.endsWith("z")) {
+        local = local.substring(0, local.length() - 1);
+      } else {
+        zone = zoneOf(parameter(parameters, "TZID"));
+      }
+      long seconds = LocalDateTime.parse(local, DATE_TIME).atZone(zone).toEpochSecond();
+      return Math.floorDiv(seconds, 60);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("line " + lineNumber + ": invalid date " + value, e);
+    }
+  }
+
+  /**
+   * Converts a date or date-time value into the day since the epoch that it falls on in UTC, which
+   * is the day the occurrence starting then is counted on.
+   */
+  private long parseDay(String parameters, String value) {
+    return Math.floorDiv(parseMinutes(parameters, value), EpochRange.MINUTES_PER_DAY);
+  }
+
+  private static ZoneId zoneOf(String tzid) {
+    if (tzid == null) {
+      return ZoneOffset.UTC;
+    }
+    try {
+      return ZoneId.of(tzid);
+    } catch (DateTimeException e) {
+      return ZoneOffset.UTC;
+    }
+  }
+
+  /**
+   * Converts a duration such as {@code PT1H30M}, {@code P1D} or {@code P2W} into minutes. Seconds
+   * are rounded down.
+   */
+  private long parseDuration(String value) {
+    String text = value.trim().toUpperCase(Locale.ROOT);
+    int i = 0;
+    if (i < text.length() && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+      if (text.charAt(i) == '-') {
+        throw new IllegalArgumentException("line " + lineNumber + ": negative duration " + value);
+      }
+      i++;
+    }
+    if (i >= text.length() || text.charAt(i++) != 'P') {
+      throw new IllegalArgumentException("line " + lineNumber + ": invalid duration " + value);
+    }
+
+    long seconds = 0;
+    long number = -1;
+    boolean isTime = false;
+    for (; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        number = Math.max(number, 0) * 10 + (c - '0');
+        continue;
+      }
+      if (c == 'T' && number < 0) {
+        isTime = true;
+        continue;
+      }
+      long unit = unitSeconds(c, isTime);
+      if (number < 0 || unit == 0) {
+        throw new IllegalArgumentException("line " + lineNumber + ": invalid duration " + value);
+      }
+      seconds += number * unit;
+      number = -1;
+    }
+    if (number >= 0) {
+      throw new IllegalArgumentException("line " + lineNumber + ": invalid duration " + value);
+    }
+    return seconds / 60;
+  }
+
+  private static long unitSeconds(char unit, boolean isTime) {
+    if (isTime) {
+      return (unit == 'H') ? 3600 : (unit == 'M') ? 60 : (unit == 'S') ? 1 : 0;
+    }
+    return (unit == 'W') ? 7 * 86400 : (unit == 'D') ? 86400 : 0;
+  }
+
+  /**
+   * Converts a rule such as {@code FREQ=WEEKLY;INTERVAL=2;COUNT=10} into a {@code Recurrence}
+   * starting on {@code startDay}. Returns null for rules a {@code Recurrence} cannot express.
+   */
+  private Recurrence parseRule(String value, long startDay) {
+    Recurrence.Frequency frequency = null;
+    int interval = 1;
+    int count = Recurrence.NO_COUNT;
+    boolean hasCount = false;
+    long untilDay = Recurrence.NO_UNTIL;
+    String byDay = null;
+    try {
+      for (String part : value.split(";")) {
+        int equals = part.indexOf('=');
+        if (equals < 0) {
+          continue;
+        }
+        String name = part.substring(0, equals).trim().toUpperCase(Locale.ROOT);
+        String partValue = part.substring(equals + 1).trim().toUpperCase(Locale.ROOT);
+        switch (name) {
+          case "FREQ":
+            if (partValue.equals("DAILY")) {
+              frequency = Recurrence.Frequency.DAILY;
+            } else if (partValue.equals("WEEKLY")) {
+              frequency = Recurrence.Frequency.WEEKLY;
+            } else {
+              return null;
+            }
+            break;
+          case "INTERVAL":
+            interval = Integer.parseInt(partValue);
+            break;
+          case "COUNT":
+            count = Integer.parseInt(partValue);
+            hasCount = true;
+            break;
+          case "UNTIL":
+            untilDay = Math.floorDiv(
+                parseMinutes("", partValue.substring(0, Math.min(8, partValue.length()))),
+                EpochRange.MINUTES_PER_DAY);
+            break;
+          case "WKST":
+            break;
+          case "BYDAY":
+            byDay = partValue;
+            break;
+          default:
+            return null;
+        }
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("line " + lineNumber + ": invalid rule " + value, e);
+    }
+    // COUNT=0 would otherwise read as NO_COUNT, which repeats forever.
+    if (frequency == null || interval <= 0 || (hasCount && count <= 0)) {
+      throw new IllegalArgumentException("line " + lineNumber + ": invalid rule " + value);
+    }
+
+    // A weekly rule repeats on the weekday it starts on, so only that weekday fits.
+    if (byDay != null && (frequency != Recurrence.Frequency.WEEKLY
+        || !byDay.equals(weekdayOf(startDay)))) {
+      return null;
+    }
+
+    Recurrence recurrence = (frequency == Recurrence.Frequency.DAILY)
+        ? Recurrence.daily(startDay, interval)
+        : Recurrence.weekly(startDay, interval);
+    return recurrence.withCount(count).withUntil(untilDay);
+  }
+
+  private static String weekdayOf(long epochDay) {
+    return LocalDate.ofEpochDay(epochDay).getDayOfWeek().name().substring(0, 2);
+  }
+
+  /**
+   * Names an attendee by their common name if they have one, and by their address otherwise.
+   */
+  private static String attendeeName(String parameters, String value) {
+    String name = parameter(parameters, "CN");
+    if (name != null && !name.isEmpty()) {
+      return name;
+    }
+    String address = value.trim();
+    if (address.regionMatches(true, 0, "mailto:", 0, 7)) {
+      address = address.substring(7);
+    }
+    return address;
+  }
+
+  /**
+   * Undoes the escaping of commas, semicolons, backslashes and newlines in text values.
+   */
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder text = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        text.append((next == 'n' || next == 'N') ? '\n' : next);
+      } else {
+        text.append(c);
+      }
+    }
+    return text.toString();
+  }
+}
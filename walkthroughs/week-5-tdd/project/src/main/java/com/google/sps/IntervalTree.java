@@ -0,0 +1,232 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A balanced binary search tree of half-open intervals {@code [start, end)}, each holding one or
+ * more values. Every node also stores the largest end in its subtree, which lets window queries
+ * skip every subtree that cannot overlap the window. Adding and removing take O(log n), and
+ * finding the k intervals that overlap a window takes O(log n + k). Trees are not thread-safe.
+ */
+final class IntervalTree<T> {
+  /**
+   * Receives the intervals found by a window query.
+   */
+  interface Visitor<T> {
+    void visit(long start, long end, T value);
+  }
+
+  private static final class Node<T> {
+    final long start;
+    final long end;
+    final List<T> values = new ArrayList<>(1);
+    long maxEnd;
+    int height = 1;
+    Node<T> left;
+    Node<T> right;
+
+    Node(long start, long end) {
+      this.start = start;
+      this.end = end;
+      this.maxEnd = end;
+    }
+  }
+
+  private Node<T> root;
+  private int size = 0;
+
+  /**
+   * Adds {@code value} over the interval from {@code start} to {@code end} (exclusive).
+   */
+  public void add(long start, long end, T value) {
+    root = add(root, start, end, value);
+    size++;
+  }
+
+  /**
+   * Removes one occurrence of {@code value} over the interval from {@code start} to {@code end}
+   * (exclusive). Returns {@code false} if the tree did not hold it.
+   */
+  public boolean remove(long start, long end, T value) {
+    int before = size;
+    root = remove(root, start, end, value);
+    return size < before;
+  }
+
+  /**
+   * Returns the number of values in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Visits every value whose interval overlaps the window from {@code start} to {@code end}
+   * (exclusive), in ascending order of interval start. Empty intervals overlap nothing.
+   */
+  public void forEachOverlapping(long start, long end, Visitor<T> visitor) {
+    if (start < end) {
+      forEachOverlapping(root, start, end, visitor);
+    }
+  }
+
+  private void forEachOverlapping(Node<T> node, long start, long end, Visitor<T> visitor) {
+    // Nothing in this subtree ends after the window starts.
+    if (node == null || node.maxEnd <= start) {
+      return;
+    }
+
+    forEachOverlapping(node.left, start, end, visitor);
+
+    // This node and everything to its right start at or after the window ends.
+    if (node.start >= end) {
+      return;
+    }
+
+    if (node.end > start && node.start < node.end) {
+      for (T value : node.values) {
+        visitor.visit(node.start, node.end, value);
+      }
+    }
+    forEachOverlapping(node.right, start, end, visitor);
+  }
+
+  private Node<T> add(Node<T> node, long start, long end, T value) {
+    if (node == null) {
+      Node<T> created = new Node<>(start, end);
+      created.values.add(value);
+      return created;
+    }
+
+    int order = compare(start, end, node);
+    if (order < 0) {
+      node.left = add(node.left, start, end, value);
+    } else if (order > 0) {
+      node.right = add(node.right, start, end, value);
+    } else {
+      node.values.add(value);
+      return node;
+    }
+    return balance(node);
+  }
+
+  private Node<T> remove(Node<T> node, long start, long end, T value) {
+    if (node == null) {
+      return null;
+    }
+
+    int order = compare(start, end, node);
+    if (order < 0) {
+      node.left = remove(node.left, start, end, value);
+    } else if (order > 0) {
+      node.right = remove(node.right, start, end, value);
+    } else {
+      if (!node.values.remove(value)) {
+        return node;
+      }
+      size--;
+      if (!node.values.isEmpty()) {
+        return node;
+      }
+
+      // The node is now empty, so unlink it.
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+
+      // Replace the node with the smallest node of its right subtree.
+      Node<T> successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      Node<T> replacement = new Node<>(successor.start, successor.end);
+      replacement.values.addAll(successor.values);
+      replacement.right = removeMin(node.right);
+      replacement.left = node.left;
+      return balance(replacement);
+    }
+    return balance(node);
+  }
+
+  private Node<T> removeMin(Node<T> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = removeMin(node.left);
+    return balance(node);
+  }
+
+  private static int compare(long start, long end, Node<?> node) {
+    int byStart = Long.compare(start, node.start);
+    return byStart != 0 ? byStart : Long.compare(end, node.end);
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static <T> void update(Node<T> node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxEnd = node.end;
+    if (node.left != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+    }
+    if (node.right != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+    }
+  }
+
+  private static <T> Node<T> balance(Node<T> node) {
+    update(node);
+    int skew = height(node.left) - height(node.right);
+    if (skew > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (skew < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private static <T> Node<T> rotateRight(Node<T> node) {
+    Node<T> left = node.left;
+    node.left = left.right;
+    left.right = node;
+    update(node);
+    update(left);
+    return left;
+  }
+
+  private static <T> Node<T> rotateLeft(Node<T> node) {
+    Node<T> right = node.right;
+    node.right = right.left;
+    right.left = node;
+    update(node);
+    update(right);
+    return right;
+  }
+}
@@ -0,0 +1,165 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of {@code FindMeetingQuery} results for the snapshots of an
+ * {@code EventRepository}. Requests are keyed by the sorted dictionary ids of their attendees, so
+ * the same people in a different order hit the same entry, and by the working hours the finder
+ * running them has for those attendees, so finders with different working hours do not share
+ * results. Results are only valid for the
+ * snapshot version they were computed from, and the whole cache is dropped as soon as a newer
+ * version is seen. Caches are thread-safe.
+ */
+public final class MeetingQueryCache {
+  private final Map<Key, Collection<TimeRange>> entries;
+
+  // The newest snapshot version seen. Every entry belongs to it.
+  private long version = -1;
+
+  /**
+   * Creates a cache that holds at most {@code capacity} results.
+   */
+  public MeetingQueryCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    this.entries = new LinkedHashMap<Key, Collection<TimeRange>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Collection<TimeRange>> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the same time ranges as {@code new FindMeetingQuery().query(snapshot, request)},
+   * running the query only if no result for an equivalent request on this snapshot version is
+   * cached. The returned collection is read-only.
+   */
+  public Collection<TimeRange> query(CalendarSnapshot snapshot, MeetingRequest request) {
+    return query(snapshot, request, new FindMeetingQuery());
+  }
+
+  /**
+   * Like {@code query(snapshot, request)}, but runs a miss on {@code finder}, so that the caller
+   * can read how long each phase of the query took. On a hit the finder only counts the hit, which
+   * {@code finder.getCacheHits()} reports, and its timings stay as they were.
+   */
+  public Collection<TimeRange> query(
+      CalendarSnapshot snapshot, MeetingRequest request, FindMeetingQuery finder) {
+    Key key = new Key(snapshot.getVersion(), request, finder);
+    Collection<TimeRange> cached;
+    synchronized (this) {
+      if (key.version > version) {
+        entries.clear();
+        version = key.version;
+      }
+      cached = entries.get(key);
+    }
+    if (cached != null) {
+      finder.recordCacheHit();
+      return cached;
+    }
+
+    // Queries outside of the lock, so that a slow miss does not hold up hits.
+    Collection<TimeRange> result = Collections.unmodifiableList(
+        new ArrayList<TimeRange>(finder.query(snapshot, request)));
+    synchronized (this) {
+      // Results of a snapshot that has already been replaced are not worth keeping.
+      if (key.version == version) {
+        entries.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of cached results.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * The parts of a request that decide its result. Attendees missing from the dictionary have no
+   * events, so they are left out of the ids; only the number of required attendees still matters,
+   * since it decides whether a quorum is reached and whether optional attendees are mandatory.
+   * The working hours of the finder also decide the result, but only those of the attendees in
+   * the request.
+   */
+  private static final class Key {
+    final long version;
+    final int[] required;
+    final int[] optional;
+    // The finder's working hours of each id in {@code required}, then in {@code optional}. Null
+    // for attendees without working hours.
+    final long[][] workingHours;
+    final long duration;
+    final int requiredCount;
+    final int minAttendees;
+    final int hash;
+
+    Key(long version, MeetingRequest request, FindMeetingQuery finder) {
+      AttendeeDictionary dictionary = AttendeeDictionary.getInstance();
+      this.version = version;
+      this.required = dictionary.toBitSet(request.getAttendees()).stream().toArray();
+      this.optional = dictionary.toBitSet(request.getOptionalAttendees()).stream().toArray();
+      this.workingHours = new long[required.length + optional.length][];
+      for (int i = 0; i < required.length; i++) {
+        workingHours[i] = finder.getWorkingHours(required[i]);
+      }
+      for (int i = 0; i < optional.length; i++) {
+        workingHours[required.length + i] = finder.getWorkingHours(optional[i]);
+      }
+      this.duration = request.getDuration();
+      this.requiredCount = request.getAttendees().size();
+      this.minAttendees = request.getMinAttendees();
+
+      int hash = Long.hashCode(version);
+      hash = hash * 31 + Arrays.hashCode(required);
+      hash = hash * 31 + Arrays.hashCode(optional);
+      hash = hash * 31 + Arrays.deepHashCode(workingHours);
+      hash = hash * 31 + Long.hashCode(duration);
+      hash = hash * 31 + requiredCount;
+      this.hash = hash * 31 + minAttendees;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return version == that.version && duration == that.duration
+          && requiredCount == that.requiredCount && minAttendees == that.minAttendees
+          && Arrays.equals(required, that.required) && Arrays.equals(optional, that.optional)
+          && Arrays.deepEquals(workingHours, that.workingHours);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -39,8 +39,24 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // How many of the attendees must be free for a time to work. Zero means all of them.
+  private final int min_attendees;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
+    this(attendees, duration, 0);
+  }
+
+  /**
+   * Creates a request that only needs {@code minAttendees} of the attendees to be free. Zero means
+   * that every attendee must be free.
+   */
+  public MeetingRequest(Collection<String> attendees, long duration, int minAttendees) {
+    if (minAttendees < 0) {
+      throw new IllegalArgumentException("minAttendees cannot be negative");
+    }
+
     this.duration = duration;
+    this.min_attendees = minAttendees;
     this.attendees.addAll(attendees);
   }
 
@@ -67,6 +83,22 @@ public final class MeetingRequest {
     }
   }
 
+  /**
+   * Returns how many of the attendees must be free for a time to work. Zero means that every
+   * attendee must be free.
+   */
+  public int getMinAttendees() {
+    return min_attendees;
+  }
+
+  /**
+   * Returns {@code true} if only a quorum of the attendees needs to be free, rather than all of
+   * them.
+   */
+  public boolean isQuorum() {
+    return min_attendees > 0 && min_attendees < attendees.size();
+  }
+
   /**
    * Returns the duration of the meeting in minutes.
    */
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads and writes {@code MeetingRequest}s in the same JSON shape that Gson uses for the class,
+ * without reflection. Requests are validated while they are read: parsing stops with a
+ * {@code JsonParseException} at the first attendee past the limit, the first value of the wrong
+ * type or the first invalid number, before the rest of the body is looked at.
+ */
+public final class MeetingRequestAdapter extends TypeAdapter<MeetingRequest> {
+  private final int maxAttendees;
+
+  /**
+   * Creates an adapter that rejects requests with more than {@code maxAttendees} required and
+   * optional attendees in total.
+   */
+  public MeetingRequestAdapter(int maxAttendees) {
+    if (maxAttendees <= 0) {
+      throw new IllegalArgumentException("maxAttendees must be positive");
+    }
+    this.maxAttendees = maxAttendees;
+  }
+
+  @Override
+  public void write(JsonWriter out, MeetingRequest request) throws IOException {
+    if (request == null) {
+      out.nullValue();
+      return;
+    }
+
+    out.beginObject();
+    writeNames(out.name("attendees"), request.getAttendees());
+    writeNames(out.name("optional_attendees"), request.getOptionalAttendees());
+    out.name("duration").value(request.getDuration());
+    out.name("min_attendees").value(request.getMinAttendees());
+    out.endObject();
+  }
+
+  @Override
+  public MeetingRequest read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    Set<String> attendees = new LinkedHashSet<>();
+    Set<String> optionalAttendees = new LinkedHashSet<>();
+    long duration = -1;
+    int minAttendees = 0;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      switch (name) {
+        case "attendees":
+          readNames(in, attendees, optionalAttendees.size());
+          break;
+        case "optional_attendees":
+          readNames(in, optionalAttendees, attendees.size());
+          break;
+        case "duration":
+          duration = readNumber(in, name);
+          break;
+        case "min_attendees":
+          minAttendees = (int) Math.min(readNumber(in, name), Integer.MAX_VALUE);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (duration < 0) {
+      throw new JsonParseException("duration is missing");
+    }
+    // Longer meetings never fit, and the finder would truncate them to an int.
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      throw new JsonParseException(
+          "duration cannot be longer than " + TimeRange.WHOLE_DAY.duration() + " minutes");
+    }
+
+    MeetingRequest request = new MeetingRequest(attendees, duration, minAttendees);
+    for (String optional : optionalAttendees) {
+      request.addOptionalAttendee(optional);
+    }
+    return request;
+  }
+
+  /**
+   * Reads an array of names into {@code names}, stopping as soon as the request has too many
+   * attendees. Duplicates are only counted once.
+   */
+  private void readNames(JsonReader in, Set<String> names, int otherCount) throws IOException {
+    expect(in, JsonToken.BEGIN_ARRAY, "attendees must be an array");
+    in.beginArray();
+    while (in.hasNext()) {
+      expect(in, JsonToken.STRING, "attendees must be strings");
+      names.add(in.nextString());
+      if (names.size() + otherCount > maxAttendees) {
+        throw new JsonParseException("a request can have at most " + maxAttendees + " attendees");
+      }
+    }
+    in.endArray();
+  }
+
+  /**
+   * Reads a whole number. Like plain Gson, a number in a string is accepted, since the page sends
+   * the raw value of its form fields.
+   */
+  private static long readNumber(JsonReader in, String name) throws IOException {
+    JsonToken token = in.peek();
+    if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+      throw new JsonParseException(name + " must be a number");
+    }
+    long value;
+    try {
+      value = (token == JsonToken.STRING) ? Long.parseLong(in.nextString().trim()) : in.nextLong();
+    } catch (NumberFormatException e) {
+      throw new JsonParseException(name + " must be a whole number", e);
+    }
+    if (value < 0) {
+      throw new JsonParseException(name + " cannot be negative");
+    }
+    return value;
+  }
+
+  private static void expect(JsonReader in, JsonToken token, String message) throws IOException {
+    if (in.peek() != token) {
+      throw new JsonParseException(message);
+    }
+  }
+
+  private static void writeNames(JsonWriter out, Collection<String> names) throws IOException {
+    out.beginArray();
+    for (String name : names) {
+      out.value(name);
+    }
+    out.endArray();
+  }
+}
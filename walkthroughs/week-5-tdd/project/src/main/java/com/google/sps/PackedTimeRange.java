@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Static helpers for working with a {@code TimeRange} packed into a single {@code long}, so that
+ * code in the scheduling hot path can store and compare ranges without allocating objects. The
+ * start is kept in the upper 32 bits and the duration in the lower 32 bits, which means that
+ * sorting packed ranges as longs sorts them by start time.
+ *
+ * <p>Every method mirrors the {@code TimeRange} method of the same name.
+ */
+public final class PackedTimeRange {
+  private static final long DURATION_MASK = 0xFFFFFFFFL;
+
+  private PackedTimeRange() {}
+
+  /**
+   * Packs a range starting at {@code start} with a duration equal to {@code duration}.
+   */
+  public static long fromStartDuration(int start, int duration) {
+    return ((long) start << 32) | (duration & DURATION_MASK);
+  }
+
+  /**
+   * Packs a range from {@code start} to {@code end}. Whether or not {@code end} is included in the
+   * range will depend on {@code inclusive}.
+   */
+  public static long fromStartEnd(int start, int end, boolean inclusive) {
+    return inclusive ? fromStartDuration(start, end - start + 1)
+                     : fromStartDuration(start, end - start);
+  }
+
+  /**
+   * Packs an existing {@code TimeRange}.
+   */
+  public static long of(TimeRange range) {
+    return fromStartDuration(range.start(), range.duration());
+  }
+
+  /**
+   * Unpacks {@code range} into a {@code TimeRange}. This is the only method that allocates.
+   */
+  public static TimeRange toTimeRange(long range) {
+    return TimeRange.fromStartDuration(start(range), duration(range));
+  }
+
+  /**
+   * Returns the start of the range in minutes.
+   */
+  public static int start(long range) {
+    return (int) (range >> 32);
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public static int duration(long range) {
+    return (int) range;
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public static int end(long range) {
+    return start(range) + duration(range);
+  }
+
+  /**
+   * Checks if two ranges overlap. This means that at least some part of one range falls within the
+   * bounds of another range.
+   */
+  public static boolean overlaps(long range, long other) {
+    return contains(range, start(other)) || contains(other, start(range));
+  }
+
+  /**
+   * Checks if {@code range} completely contains {@code other}. This is an inclusive bounds,
+   * meaning that if two ranges are the same, they contain each other.
+   */
+  public static boolean contains(long range, long other) {
+    if (duration(range) <= 0) {
+      return false;
+    }
+
+    // A range with no duration is a point in time rather than a range.
+    if (duration(other) <= 0) {
+      return contains(range, start(other));
+    }
+
+    int otherInclusiveEnd = start(other) + duration(other) - 1;
+    return contains(range, start(other)) && contains(range, otherInclusiveEnd);
+  }
+
+  /**
+   * Checks if {@code range} contains {@code point}. The end of the range is not included.
+   */
+  public static boolean contains(long range, int point) {
+    if (duration(range) <= 0) {
+      return false;
+    }
+    return point >= start(range) && point < end(range);
+  }
+}
@@ -0,0 +1,260 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A rule saying on which days a recurring event takes place, such as "every other week, ten
+ * times". Days are counted since the Unix epoch, like {@code LocalDate.toEpochDay()}. The
+ * occurrences are never stored; {@code days} computes the ones inside a span when asked, leaving
+ * out any excluded days. Recurrences are read-only.
+ */
+public final class Recurrence {
+  /**
+   * How often the rule repeats. Weekly rules repeat on the weekday of their first day.
+   */
+  public enum Frequency {
+    DAILY(1),
+    WEEKLY(7);
+
+    private final int days;
+
+    Frequency(int days) {
+      this.days = days;
+    }
+  }
+
+  /** The count of a rule that is not limited to a number of occurrences. */
+  public static final int NO_COUNT = 0;
+
+  /** The last day of a rule that repeats forever. */
+  public static final long NO_UNTIL = Long.MAX_VALUE;
+
+  private final Frequency frequency;
+  private final long startDay;
+  private final int interval;
+  private final int count;
+  private final long untilDay;
+
+  // Days that the rule would repeat on but that have no occurrence, sorted in ascending order.
+  // Gson leaves this null when reading a recurrence written before exclusions existed.
+  private final long[] excludedDays;
+
+  private Recurrence(Frequency frequency, long startDay, int interval, int count, long untilDay) {
+    this(frequency, startDay, interval, count, untilDay, new long[0]);
+  }
+
+  private Recurrence(Frequency frequency, long startDay, int interval, int count, long untilDay,
+      long[] excludedDays) {
+    if (frequency == null) {
+      throw new IllegalArgumentException("frequency cannot be null");
+    }
+
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval must be positive");
+    }
+
+    if (count < 0) {
+      throw new IllegalArgumentException("count cannot be negative");
+    }
+
+    this.frequency = frequency;
+    this.startDay = startDay;
+    this.interval = interval;
+    this.count = count;
+    this.untilDay = untilDay;
+    this.excludedDays = excludedDays;
+  }
+
+  /**
+   * Creates a rule repeating every {@code interval} days from {@code startDay}, forever.
+   */
+  public static Recurrence daily(long startDay, int interval) {
+    return new Recurrence(Frequency.DAILY, startDay, interval, NO_COUNT, NO_UNTIL);
+  }
+
+  /**
+   * Creates a rule repeating every {@code interval} weeks from {@code startDay}, forever.
+   */
+  public static Recurrence weekly(long startDay, int interval) {
+    return new Recurrence(Frequency.WEEKLY, startDay, interval, NO_COUNT, NO_UNTIL);
+  }
+
+  /**
+   * Returns a copy of this rule that stops after {@code count} occurrences.
+   */
+  public Recurrence withCount(int count) {
+    return new Recurrence(frequency, startDay, interval, count, untilDay, getExcludedDays());
+  }
+
+  /**
+   * Returns a copy of this rule that stops after {@code untilDay}, inclusive.
+   */
+  public Recurrence withUntil(long untilDay) {
+    return new Recurrence(frequency, startDay, interval, count, untilDay, getExcludedDays());
+  }
+
+  /**
+   * Returns a copy of this rule without occurrences on {@code days}, in addition to the days this
+   * rule already excludes. Excluded days still count towards the count of the rule.
+   */
+  public Recurrence withExcludedDays(long... days) {
+    long[] excluded = getExcludedDays();
+    long[] merged = Arrays.copyOf(excluded, excluded.length + days.length);
+    System.arraycopy(days, 0, merged, excluded.length, days.length);
+    Arrays.sort(merged);
+    int length = 0;
+    for (long day : merged) {
+      if (length == 0 || merged[length - 1] != day) {
+        merged[length++] = day;
+      }
+    }
+    return new Recurrence(
+        frequency, startDay, interval, count, untilDay, Arrays.copyOf(merged, length));
+  }
+
+  /**
+   * Returns how often the rule repeats.
+   */
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  /**
+   * Returns the day of the first occurrence.
+   */
+  public long getStartDay() {
+    return startDay;
+  }
+
+  /**
+   * Returns the number of days or weeks between occurrences.
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  /**
+   * Returns the maximum number of occurrences, or {@code NO_COUNT}.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the last day that may have an occurrence, inclusive, or {@code NO_UNTIL}.
+   */
+  public long getUntilDay() {
+    return untilDay;
+  }
+
+  /**
+   * Returns a copy of the days without an occurrence, in ascending order.
+   */
+  public long[] getExcludedDays() {
+    return (excludedDays == null) ? new long[0] : excludedDays.clone();
+  }
+
+  /**
+   * Returns the last day the rule repeats on, {@code NO_UNTIL} if the rule repeats forever, or a
+   * day before {@code getStartDay()} if the rule has no occurrences. The day may be excluded.
+   */
+  public long lastDay() {
+    long step = step();
+    long last = NO_UNTIL;
+    if (count != NO_COUNT) {
+      last = startDay + (count - 1) * step;
+    }
+    if (untilDay != NO_UNTIL) {
+      if (untilDay < startDay) {
+        return startDay - 1;
+      }
+      last = Math.min(last, startDay + (untilDay - startDay) / step * step);
+    }
+    return last;
+  }
+
+  /**
+   * Returns the days of the occurrences from {@code fromDay} to {@code toDay}, both inclusive, in
+   * ascending order. The days are computed as the iterator advances.
+   */
+  public PrimitiveIterator.OfLong days(long fromDay, long toDay) {
+    long step = step();
+    long last = Math.min(toDay, lastDay());
+    long first = startDay;
+    if (fromDay > startDay) {
+      first = startDay + (fromDay - startDay + step - 1) / step * step;
+    }
+    long firstDay = first;
+    return new PrimitiveIterator.OfLong() {
+      private long next = skipExcluded(firstDay);
+
+      @Override
+      public boolean hasNext() {
+        return next <= last;
+      }
+
+      @Override
+      public long nextLong() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        long day = next;
+        next = skipExcluded(next + step);
+        return day;
+      }
+
+      private long skipExcluded(long day) {
+        while (day <= last && isExcluded(day)) {
+          day += step;
+        }
+        return day;
+      }
+    };
+  }
+
+  private boolean isExcluded(long day) {
+    return excludedDays != null && Arrays.binarySearch(excludedDays, day) >= 0;
+  }
+
+  private long step() {
+    return (long) frequency.days * interval;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Recurrence)) {
+      return false;
+    }
+    Recurrence that = (Recurrence) other;
+    return frequency == that.frequency && startDay == that.startDay && interval == that.interval
+        && count == that.count && untilDay == that.untilDay
+        && Arrays.equals(getExcludedDays(), that.getExcludedDays());
+  }
+
+  @Override
+  public int hashCode() {
+    return ((frequency.hashCode() * 31 + Long.hashCode(startDay)) * 31 + interval) * 31 + count;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Recurrence: %s every %d from day %d, count=%d, until=%d, excluded=%s",
+        frequency, interval, startDay, count, untilDay, Arrays.toString(getExcludedDays()));
+  }
+}
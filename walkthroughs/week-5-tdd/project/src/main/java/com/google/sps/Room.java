@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A meeting room with a number of seats and the times it is already booked. Rooms are read-only.
+ */
+public final class Room {
+  private final String name;
+  private final int capacity;
+
+  // The merged busy ranges of the room, packed and sorted by start time. No two of them overlap or
+  // touch, so their ends are sorted too.
+  private final long[] busy;
+
+  /**
+   * Creates a new room.
+   *
+   * @param name The human-readable name for the room. Must be non-null.
+   * @param capacity The number of people that fit in the room. Must not be negative.
+   * @param busy The times when the room is already booked. Must be non-null.
+   */
+  public Room(String name, int capacity, Collection<TimeRange> busy) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    if (busy == null) {
+      throw new IllegalArgumentException("busy cannot be null. Use empty array instead.");
+    }
+
+    BusyTimeline timeline = new BusyTimeline();
+    for (TimeRange range : busy) {
+      if (range.duration() > 0) {
+        timeline.add(range);
+      }
+    }
+    this.name = name;
+    this.capacity = capacity;
+    this.busy = timeline.getMergedRanges().stream().mapToLong(PackedTimeRange::of).toArray();
+  }
+
+  /**
+   * Returns the human-readable name for this room.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of people that fit in this room.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the merged times when this room is booked, sorted by start time.
+   */
+  public List<TimeRange> getBusyRanges() {
+    List<TimeRange> result = new ArrayList<>(busy.length);
+    for (long range : busy) {
+      result.add(PackedTimeRange.toTimeRange(range));
+    }
+    return result;
+  }
+
+  /**
+   * Visits the ranges within {@code start} to {@code end} (exclusive) when the room is free for at
+   * least {@code duration} minutes, in order, until the visitor returns false. Finds the first
+   * busy range with a binary search, so it runs in O(log b) plus the number of busy ranges inside
+   * the span.
+   */
+  void forEachFreeRange(int start, int end, long duration, FindMeetingQuery.RangeVisitor visitor) {
+    // The ends are sorted as well, so find the first busy range that ends after {@code start}.
+    int low = 0;
+    int high = busy.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (PackedTimeRange.end(busy[middle]) <= start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    int freeStart = start;
+    for (int i = low; i < busy.length && PackedTimeRange.start(busy[i]) < end; i++) {
+      int busyStart = PackedTimeRange.start(busy[i]);
+      if (FindMeetingQuery.fits(freeStart, busyStart, duration)) {
+        if (!visitor.visit(freeStart, busyStart)) {
+          return;
+        }
+      }
+      freeStart = Math.max(freeStart, PackedTimeRange.end(busy[i]));
+    }
+    if (FindMeetingQuery.fits(freeStart, end, duration)) {
+      visitor.visit(freeStart, end);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Room && name.equals(((Room) other).name)
+        && capacity == ((Room) other).capacity && Arrays.equals(busy, ((Room) other).busy);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Room: %s (%d seats)", name, capacity);
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A time range when both the attendees of a meeting and a room are free. Bookings are read-only.
+ */
+public final class RoomBooking {
+  private final TimeRange when;
+  private final Room room;
+
+  RoomBooking(TimeRange when, Room room) {
+    this.when = when;
+    this.room = room;
+  }
+
+  /**
+   * Returns the time range when the meeting could take place in the room.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns the room the meeting could take place in.
+   */
+  public Room getRoom() {
+    return room;
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() * 31 + room.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RoomBooking && when.equals(((RoomBooking) other).when)
+        && room.equals(((RoomBooking) other).room);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RoomBooking: %s in %s", when, room.getName());
+  }
+}
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Rooms sorted by capacity, so that the smallest room with enough seats is found in O(log R)
+ * rather than by scanning every room. Indexes are read-only once created.
+ */
+public final class RoomIndex {
+  // Rooms grouped by capacity, in the order they were given.
+  private final NavigableMap<Integer, List<Room>> byCapacity = new TreeMap<>();
+
+  /**
+   * Creates an index of {@code rooms}.
+   */
+  public RoomIndex(Collection<Room> rooms) {
+    for (Room room : rooms) {
+      byCapacity.computeIfAbsent(room.getCapacity(), capacity -> new ArrayList<>()).add(room);
+    }
+  }
+
+  /**
+   * Books rooms with at least {@code seats} seats during a time range when the attendees are
+   * free. Each part of the range goes to the smallest room that is free for {@code duration}
+   * minutes during it, so parts that a small room cannot take fall through to larger rooms until
+   * the whole range is booked or the rooms run out. Adds the bookings in order of start time and
+   * returns {@code false} if no room fits anywhere in the range.
+   *
+   * <p>Finding the first room with enough seats takes O(log R). From there, rooms are tried in
+   * order of capacity only while part of the range is still unbooked, and each room costs a binary
+   * search plus its busy ranges inside the parts that are left.
+   */
+  boolean bookBestFit(int seats, int start, int end, long duration,
+      Collection<RoomBooking> result) {
+    // The parts of the range that no room has taken yet, as start and end pairs in order.
+    List<int[]> unbooked = new ArrayList<>();
+    unbooked.add(new int[] {start, end});
+    List<RoomBooking> bookings = new ArrayList<>();
+
+    for (List<Room> rooms : byCapacity.tailMap(seats, true).values()) {
+      for (Room room : rooms) {
+        if (unbooked.isEmpty()) {
+          break;
+        }
+        List<int[]> left = new ArrayList<>();
+        for (int[] part : unbooked) {
+          int[] freeUntil = {part[0]};
+          room.forEachFreeRange(part[0], part[1], duration, (freeStart, freeEnd) -> {
+            bookings.add(new RoomBooking(TimeRange.fromStartEnd(freeStart, freeEnd, false), room));
+            keepIfFits(left, freeUntil[0], freeStart, duration);
+            freeUntil[0] = freeEnd;
+            return true;
+          });
+          keepIfFits(left, freeUntil[0], part[1], duration);
+        }
+        unbooked = left;
+      }
+    }
+
+    bookings.sort((a, b) -> TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen()));
+    result.addAll(bookings);
+    return !bookings.isEmpty();
+  }
+
+  /**
+   * Keeps a part of the range for the next room, unless the meeting could not fit into it.
+   */
+  private static void keepIfFits(List<int[]> parts, int start, int end, long duration) {
+    if (FindMeetingQuery.fits(start, end, duration)) {
+      parts.add(new int[] {start, end});
+    }
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The process-wide {@code SchedulerStatsMXBean}, registered with the platform MBean server the
+ * first time it is used. The counters are {@code LongAdder}s, so queries running on many threads
+ * can update them without contending with each other.
+ */
+public final class SchedulerStats implements SchedulerStatsMXBean {
+  /** The name the stats are registered under. */
+  public static final String OBJECT_NAME = "com.google.sps:type=SchedulerStats";
+
+  private final LongAdder attendeeSetsQueried = new LongAdder();
+  private final LongAdder attendeesQueried = new LongAdder();
+  private final LongAdder eventsScanned = new LongAdder();
+  private final LongAdder eventsMatched = new LongAdder();
+  private final LongAdder blockedRangesBeforeMerge = new LongAdder();
+  private final LongAdder blockedRangesAfterMerge = new LongAdder();
+  private final LongAdder scanNanos = new LongAdder();
+  private final LongAdder sortNanos = new LongAdder();
+  private final LongAdder extractNanos = new LongAdder();
+
+  private SchedulerStats() {}
+
+  /**
+   * Returns the stats shared by every {@code FindMeetingQuery} in this process.
+   */
+  public static SchedulerStats getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Removes the stats from the platform MBean server, so that a redeployed webapp does not leave
+   * them holding on to its class loader. Does nothing if they were never registered.
+   */
+  public static void unregister() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+    } catch (JMException | SecurityException e) {
+      // Never registered, or registered by someone else who is allowed to keep them.
+    }
+  }
+
+  // Created and registered on first use.
+  private static final class Holder {
+    static final SchedulerStats INSTANCE = register(new SchedulerStats());
+
+    private static SchedulerStats register(SchedulerStats stats) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(stats, new ObjectName(OBJECT_NAME));
+      } catch (JMException | SecurityException e) {
+        // The stats still count; they are just not visible over JMX.
+      }
+      return stats;
+    }
+  }
+
+  void recordScan(int attendees, int scanned, int matched, long nanos) {
+    attendeeSetsQueried.increment();
+    attendeesQueried.add(attendees);
+    eventsScanned.add(scanned);
+    eventsMatched.add(matched);
+    scanNanos.add(nanos);
+  }
+
+  void recordSort(long nanos) {
+    sortNanos.add(nanos);
+  }
+
+  void recordMerge(int beforeMerge, int afterMerge) {
+    blockedRangesBeforeMerge.add(beforeMerge);
+    blockedRangesAfterMerge.add(afterMerge);
+  }
+
+  void recordExtract(long nanos) {
+    extractNanos.add(nanos);
+  }
+
+  @Override
+  public long getAttendeeSetsQueried() {
+    return attendeeSetsQueried.sum();
+  }
+
+  @Override
+  public long getAttendeesQueried() {
+    return attendeesQueried.sum();
+  }
+
+  @Override
+  public long getEventsScanned() {
+    return eventsScanned.sum();
+  }
+
+  @Override
+  public long getEventsMatched() {
+    return eventsMatched.sum();
+  }
+
+  @Override
+  public long getBlockedRangesBeforeMerge() {
+    return blockedRangesBeforeMerge.sum();
+  }
+
+  @Override
+  public long getBlockedRangesAfterMerge() {
+    return blockedRangesAfterMerge.sum();
+  }
+
+  @Override
+  public long getScanNanos() {
+    return scanNanos.sum();
+  }
+
+  @Override
+  public long getSortNanos() {
+    return sortNanos.sum();
+  }
+
+  @Override
+  public long getExtractNanos() {
+    return extractNanos.sum();
+  }
+
+  @Override
+  public void reset() {
+    attendeeSetsQueried.reset();
+    attendeesQueried.reset();
+    eventsScanned.reset();
+    eventsMatched.reset();
+    blockedRangesBeforeMerge.reset();
+    blockedRangesAfterMerge.reset();
+    scanNanos.reset();
+    sortNanos.reset();
+    extractNanos.reset();
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * The counters and timers of every {@code FindMeetingQuery} in this process, as shown by JMX
+ * clients such as JConsole under {@code com.google.sps:type=SchedulerStats}. A request with
+ * optional attendees queries two attendee sets, and each of them is counted.
+ */
+public interface SchedulerStatsMXBean {
+  /**
+   * Returns the number of attendee sets that were queried.
+   */
+  long getAttendeeSetsQueried();
+
+  /**
+   * Returns the total size of the attendee sets that were queried.
+   */
+  long getAttendeesQueried();
+
+  /**
+   * Returns the number of events, or already merged busy ranges, that were looked at.
+   */
+  long getEventsScanned();
+
+  /**
+   * Returns the number of scanned events that blocked at least one requested attendee.
+   */
+  long getEventsMatched();
+
+  /**
+   * Returns the number of blocked time ranges before overlapping ranges were merged.
+   */
+  long getBlockedRangesBeforeMerge();
+
+  /**
+   * Returns the number of blocked time ranges after overlapping ranges were merged.
+   */
+  long getBlockedRangesAfterMerge();
+
+  /**
+   * Returns the time spent looking for blocking events, in nanoseconds.
+   */
+  long getScanNanos();
+
+  /**
+   * Returns the time spent sorting blocked time ranges, in nanoseconds.
+   */
+  long getSortNanos();
+
+  /**
+   * Returns the time spent finding the free time between blocked ranges, in nanoseconds.
+   */
+  long getExtractNanos();
+
+  /**
+   * Sets every counter and timer back to zero.
+   */
+  void reset();
+}
@@ -0,0 +1,154 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.function.IntPredicate;
+
+/**
+ * A policy for ranking meeting slots suggested by {@code FindMeetingQuery.suggest}. A ranking
+ * places a meeting inside a free gap and scores the result, where lower scores are better.
+ */
+public interface SlotRanking {
+  /**
+   * Returns the start of the best slot of {@code duration} minutes inside the free gap from
+   * {@code gapStart} to {@code gapEnd} (exclusive). The gap is always long enough for the meeting.
+   */
+  int place(int gapStart, int gapEnd, int duration);
+
+  /**
+   * Returns the score of a slot starting at {@code slotStart} inside the free gap from
+   * {@code gapStart} to {@code gapEnd} (exclusive). Lower scores are better.
+   */
+  long score(int slotStart, int gapStart, int gapEnd, int duration);
+
+  /**
+   * Returns a score that no slot starting at or after {@code slotStart} can beat. Slots are visited
+   * in order of start time, so this must never decrease as {@code slotStart} grows. It lets the
+   * search stop as soon as the remaining slots cannot improve on the suggestions found so far.
+   */
+  long lowerBound(int slotStart);
+
+  /**
+   * Returns the minutes between the slots offered inside one gap, besides the one {@code place}
+   * picks. Defaults to 30, so a long gap offers a slot on every hour and half hour.
+   */
+  default int step() {
+    return 30;
+  }
+
+  /**
+   * Visits the starts of the slots of {@code duration} minutes worth suggesting inside the free gap
+   * from {@code gapStart} to {@code gapEnd} (exclusive) in increasing order, until the visitor
+   * returns false. These are the start picked by {@code place} and every multiple of {@code step}
+   * that leaves room for the meeting, so one long gap can fill several suggestions.
+   */
+  default void forEachStart(int gapStart, int gapEnd, int duration, IntPredicate visitor) {
+    int placed = place(gapStart, gapEnd, duration);
+    int last = gapEnd - duration;
+    int step = step();
+    boolean isPlacedVisited = false;
+    for (int start = (gapStart + step - 1) / step * step; start <= last; start += step) {
+      if (!isPlacedVisited && placed <= start) {
+        isPlacedVisited = true;
+        if (placed < start && !visitor.test(placed)) {
+          return;
+        }
+      }
+      if (!visitor.test(start)) {
+        return;
+      }
+    }
+    if (!isPlacedVisited) {
+      visitor.test(placed);
+    }
+  }
+
+  /**
+   * Prefers the earliest slots of the day.
+   */
+  static SlotRanking earliest() {
+    return new SlotRanking() {
+      @Override
+      public int place(int gapStart, int gapEnd, int duration) {
+        return gapStart;
+      }
+
+      @Override
+      public long score(int slotStart, int gapStart, int gapEnd, int duration) {
+        return slotStart;
+      }
+
+      @Override
+      public long lowerBound(int slotStart) {
+        return slotStart;
+      }
+    };
+  }
+
+  /**
+   * Prefers the gaps that the meeting fills most completely, so that booking it leaves the fewest
+   * leftover minutes that are too short to be useful. The meeting is placed at the start of the gap
+   * so that the leftover time stays in one piece.
+   */
+  static SlotRanking leastFragmentation() {
+    return new SlotRanking() {
+      @Override
+      public int place(int gapStart, int gapEnd, int duration) {
+        return gapStart;
+      }
+
+      @Override
+      public long score(int slotStart, int gapStart, int gapEnd, int duration) {
+        return (gapEnd - gapStart) - duration;
+      }
+
+      @Override
+      public long lowerBound(int slotStart) {
+        // A later gap could always be a perfect fit.
+        return 0;
+      }
+
+      @Override
+      public void forEachStart(int gapStart, int gapEnd, int duration, IntPredicate visitor) {
+        // Any other start would split the leftover time in two, so each gap offers one slot.
+        visitor.test(place(gapStart, gapEnd, duration));
+      }
+    };
+  }
+
+  /**
+   * Prefers the slots that start closest to {@code preferredStart}.
+   */
+  static SlotRanking closestTo(int preferredStart) {
+    return new SlotRanking() {
+      @Override
+      public int place(int gapStart, int gapEnd, int duration) {
+        return Math.max(gapStart, Math.min(preferredStart, gapEnd - duration));
+      }
+
+      @Override
+      public long score(int slotStart, int gapStart, int gapEnd, int duration) {
+        return Math.abs(slotStart - preferredStart);
+      }
+
+      @Override
+      public long lowerBound(int slotStart) {
+        // Slots before the preferred start could still be close to it, but every slot after it is
+        // at least as far away as its start.
+        return Math.max(0, slotStart - preferredStart);
+      }
+    };
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hours an attendee works, in their own time zone. The scheduler's day is in UTC, so the
+ * hours are converted once, when they are created, into the UTC ranges of the day when the
+ * attendee is not working. Working hours are read-only.
+ */
+public final class WorkingHours {
+  // Time zones range from UTC-12:00 to UTC+14:00.
+  private static final int MIN_UTC_OFFSET = -12 * 60;
+  private static final int MAX_UTC_OFFSET = 14 * 60;
+
+  private final int localStart;
+  private final int localEnd;
+  private final int utcOffset;
+
+  // The packed UTC ranges of the day outside of the working hours, sorted by start time.
+  private final long[] blockedTimes;
+
+  private WorkingHours(int localStart, int localEnd, int utcOffset) {
+    this.localStart = localStart;
+    this.localEnd = localEnd;
+    this.utcOffset = utcOffset;
+    this.blockedTimes = computeBlockedTimes(localStart - utcOffset, localEnd - utcOffset);
+  }
+
+  /**
+   * Creates the working hours from {@code localStart} to {@code localEnd} (exclusive), in minutes
+   * of the attendee's local day, for an attendee whose time zone is {@code utcOffset} minutes
+   * ahead of UTC.
+   */
+  public static WorkingHours of(int localStart, int localEnd, int utcOffset) {
+    int dayMinutes = TimeRange.WHOLE_DAY.duration();
+    if (localStart < 0 || localEnd > dayMinutes || localStart >= localEnd) {
+      throw new IllegalArgumentException(
+          "working hours must be a non-empty range between 0 and " + dayMinutes);
+    }
+
+    if (utcOffset < MIN_UTC_OFFSET || utcOffset > MAX_UTC_OFFSET) {
+      throw new IllegalArgumentException("utcOffset must be between -12:00 and +14:00");
+    }
+
+    return new WorkingHours(localStart, localEnd, utcOffset);
+  }
+
+  /**
+   * Returns the start of the working hours in minutes of the local day.
+   */
+  public int getLocalStart() {
+    return localStart;
+  }
+
+  /**
+   * Returns the end of the working hours in minutes of the local day. This ending value is the
+   * closing exclusive bound.
+   */
+  public int getLocalEnd() {
+    return localEnd;
+  }
+
+  /**
+   * Returns how many minutes the attendee's time zone is ahead of UTC.
+   */
+  public int getUtcOffset() {
+    return utcOffset;
+  }
+
+  /**
+   * Returns the UTC time ranges of the day outside of the working hours, sorted by start time.
+   */
+  public List<TimeRange> getBlockedRanges() {
+    List<TimeRange> result = new ArrayList<>(blockedTimes.length);
+    for (long range : blockedTimes) {
+      result.add(PackedTimeRange.toTimeRange(range));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the packed UTC time ranges of the day outside of the working hours, sorted by start
+   * time. The array is shared and must not be modified.
+   */
+  long[] getBlockedTimes() {
+    return blockedTimes;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof WorkingHours && localStart == ((WorkingHours) other).localStart
+        && localEnd == ((WorkingHours) other).localEnd
+        && utcOffset == ((WorkingHours) other).utcOffset;
+  }
+
+  @Override
+  public int hashCode() {
+    return (localStart * 31 + localEnd) * 31 + utcOffset;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("WorkingHours: [%d, %d) at UTC%+d min", localStart, localEnd, utcOffset);
+  }
+
+  /**
+   * Finds the parts of the UTC day outside of the working hours. In UTC the working hours may
+   * start on the previous day or end on the next one, so the copies of them one day earlier and
+   * one day later are cut out as well.
+   */
+  private static long[] computeBlockedTimes(int utcStart, int utcEnd) {
+    int dayMinutes = TimeRange.WHOLE_DAY.duration();
+    List<Long> blocked = new ArrayList<>();
+    int freeFrom = TimeRange.START_OF_DAY;
+    for (int shift = -dayMinutes; shift <= dayMinutes; shift += dayMinutes) {
+      int start = Math.max(utcStart + shift, TimeRange.START_OF_DAY);
+      int end = Math.min(utcEnd + shift, dayMinutes);
+      if (start >= end) {
+        continue;
+      }
+      if (start > freeFrom) {
+        blocked.add(PackedTimeRange.fromStartEnd(freeFrom, start, false));
+      }
+      freeFrom = end;
+    }
+    if (freeFrom < dayMinutes) {
+      blocked.add(PackedTimeRange.fromStartEnd(freeFrom, dayMinutes, false));
+    }
+
+    long[] result = new long[blocked.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = blocked.get(i);
+    }
+    return result;
+  }
+}
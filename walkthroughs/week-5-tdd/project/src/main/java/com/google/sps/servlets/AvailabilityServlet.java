@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AvailabilityHistogram;
+import com.google.sps.BinaryEventStore;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that returns how many of a group of attendees are free during each part of the day, for
+ * example {@code /availability?attendees=Amelia,Ava,Emma&bucket=15}. The counts are run-length
+ * encoded, so the response stays small even for large groups.
+ */
+@WebServlet("/availability")
+public class AvailabilityServlet extends HttpServlet {
+  private static final int DEFAULT_BUCKET_MINUTES = 15;
+
+  private static final Gson GSON = new Gson();
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Collect the attendees from a comma-separated list.
+    Collection<String> attendees = new ArrayList<>();
+    String attendeesParameter = request.getParameter("attendees");
+    if (attendeesParameter != null) {
+      for (String attendee : attendeesParameter.split("\\s*,\\s*")) {
+        if (!attendee.isEmpty()) {
+          attendees.add(attendee);
+        }
+      }
+    }
+
+    int bucketMinutes = DEFAULT_BUCKET_MINUTES;
+    String bucketParameter = request.getParameter("bucket");
+    AvailabilityHistogram histogram;
+    try {
+      if (bucketParameter != null) {
+        bucketMinutes = Integer.parseInt(bucketParameter);
+      }
+      BinaryEventStore store = EventSource.getStore();
+      histogram = (store != null)
+          ? AvailabilityHistogram.compute(store, attendees, bucketMinutes)
+          : AvailabilityHistogram.compute(
+              EventSource.getRepository().snapshot().getEvents(), attendees, bucketMinutes);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(GSON.toJson(histogram));
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BinaryEventStore;
+import com.google.sps.EventRepository;
+import com.google.sps.Events;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Where the servlets get their events from. If the {@code calendar.eventStore} system property
+ * names a {@code BinaryEventStore} file (see {@code EventStoreConverter}), that file is mapped
+ * once and every servlet reads it directly. Otherwise the hand-written {@code Events.events} are
+ * used through an {@code EventRepository}.
+ */
+final class EventSource {
+  static final String STORE_PROPERTY = "calendar.eventStore";
+
+  private EventSource() {}
+
+  /**
+   * Returns the configured event store, or {@code null} if the servlets use {@code Events.events}.
+   */
+  static BinaryEventStore getStore() {
+    return StoreHolder.STORE;
+  }
+
+  /**
+   * Returns the repository that the servlets read snapshots from when there is no store, seeded
+   * with {@code Events.events}. The store is read directly and never decoded into it.
+   */
+  static EventRepository getRepository() {
+    return RepositoryHolder.REPOSITORY;
+  }
+
+  // Loaded on first use, so that servlets reading the store never build the repository.
+  private static final class RepositoryHolder {
+    static final EventRepository REPOSITORY = new EventRepository(Arrays.asList(Events.events));
+  }
+
+  // Mapped on first use, so that /query reads the store without taking a lock.
+  private static final class StoreHolder {
+    static final BinaryEventStore STORE = open(System.getProperty(STORE_PROPERTY));
+
+    private static BinaryEventStore open(String path) {
+      if (path == null || path.isEmpty()) {
+        return null;
+      }
+      try {
+        return BinaryEventStore.open(Paths.get(path));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not open the event store " + path, e);
+      }
+    }
+  }
+}
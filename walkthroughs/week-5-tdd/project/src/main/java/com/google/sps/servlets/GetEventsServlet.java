@@ -14,23 +14,268 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.BinaryEventStore;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.Event;
+import com.google.sps.EventAdapter;
+import com.google.sps.FreeBusyEncoding;
+import com.google.sps.PackedTimeRange;
+import com.google.sps.TimeRange;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Servlet that returns every event as JSON. The response is encoded once per version of the
+ * events and copied out on every request: a mapped store never changes, and the repository's
+ * bodies are rebuilt the first time a request sees a new snapshot version.
+ *
+ * <p>With {@code ?format=runs} or {@code ?format=bitmap}, it instead returns a JSON object mapping
+ * each attendee to their merged busy time in that {@code FreeBusyEncoding}, which is much smaller
+ * than the events and saves the browser from merging them.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  // Let browsers reuse the events for a few minutes, then revalidate them with the ETag.
+  private static final String CACHE_CONTROL = "public, max-age=300";
+
+  private static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(Event.class, new EventAdapter()).create();
+
+  // The bodies of the latest version seen. Replaced as a whole, so readers never mix versions.
+  private volatile Bodies bodies;
+
+  @Override
+  public void init() {
+    BinaryEventStore store = EventSource.getStore();
+    if (store != null) {
+      // Read the mapped store directly rather than decoding every event first.
+      bodies = new Bodies(0, storeEventsJson(store), storeBusyRanges(store));
+    }
+  }
+
+  /**
+   * Returns the bodies for the current events, rebuilding them if the repository has published a
+   * new snapshot since they were built.
+   */
+  private Bodies currentBodies() {
+    if (EventSource.getStore() != null) {
+      return bodies;
+    }
+    CalendarSnapshot snapshot = EventSource.getRepository().snapshot();
+    Bodies current = bodies;
+    if (current != null && current.version == snapshot.getVersion()) {
+      return current;
+    }
+    synchronized (this) {
+      // Another request may have rebuilt them while this one waited.
+      current = bodies;
+      if (current == null || current.version != snapshot.getVersion()) {
+        current = snapshotBodies(snapshot);
+        bodies = current;
+      }
+      return current;
+    }
+  }
+
+  private static Bodies snapshotBodies(CalendarSnapshot snapshot) {
+    // The snapshot already holds every attendee's merged busy time.
+    TreeSet<String> attendees = new TreeSet<String>();
+    for (Event event : snapshot.getEvents()) {
+      attendees.addAll(event.getAttendees());
+    }
+    Map<String, Collection<TimeRange>> busy = new LinkedHashMap<String, Collection<TimeRange>>();
+    for (String attendee : attendees) {
+      busy.put(attendee, snapshot.getBusyRanges(attendee));
+    }
+    return new Bodies(snapshot.getVersion(), GSON.toJson(snapshot.getEvents()), busy);
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    Bodies current = currentBodies();
+    EncodedBody encoded = current.events;
+    String format = request.getParameter("format");
+    if (format != null) {
+      try {
+        encoded =
+            current.busyTimes.get(FreeBusyEncoding.Format.valueOf(format.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "unknown format " + format);
+        return;
+      }
+    }
+
+    String etag = encoded.etag;
+    response.setHeader("ETag", etag);
+    response.setHeader("Cache-Control", CACHE_CONTROL);
+    response.setHeader("Vary", "Accept-Encoding");
+
+    // The client already has these exact events. The header may list several ETags.
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] body = encoded.json;
+    String acceptEncoding = request.getHeader("Accept-Encoding");
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      body = encoded.gzippedJson;
+      response.setHeader("Content-Encoding", "gzip");
+    }
 
     // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setContentType("application/json;charset=UTF-8");
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Every response body for one version of the events.
+   */
+  private static final class Bodies {
+    final long version;
+    final EncodedBody events;
+    final Map<FreeBusyEncoding.Format, EncodedBody> busyTimes =
+        new EnumMap<FreeBusyEncoding.Format, EncodedBody>(FreeBusyEncoding.Format.class);
+
+    Bodies(long version, String eventsJson, Map<String, Collection<TimeRange>> busy) {
+      this.version = version;
+      this.events = new EncodedBody(eventsJson);
+      for (FreeBusyEncoding.Format format : FreeBusyEncoding.Format.values()) {
+        Map<String, String> encoded = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, Collection<TimeRange>> entry : busy.entrySet()) {
+          encoded.put(entry.getKey(), FreeBusyEncoding.encode(format, entry.getValue()));
+        }
+        busyTimes.put(format, new EncodedBody(GSON.toJson(encoded)));
+      }
+    }
+  }
+
+  /**
+   * A response body, ready to be sent with or without gzip.
+   */
+  private static final class EncodedBody {
+    final byte[] json;
+    final byte[] gzippedJson;
+    final String etag;
+
+    EncodedBody(String jsonResponse) {
+      json = jsonResponse.getBytes(StandardCharsets.UTF_8);
+      gzippedJson = gzip(json);
+      etag = "\"" + sha256Hex(json) + "\"";
+    }
+  }
+
+  /**
+   * Writes every event of {@code store} as a JSON array in the shape of {@code EventAdapter}.
+   */
+  private static String storeEventsJson(BinaryEventStore store) {
+    StringWriter json = new StringWriter();
+    try (JsonWriter out = new JsonWriter(json)) {
+      out.beginArray();
+      for (int event = 0; event < store.size(); event++) {
+        EventAdapter.writeStoreEvent(out, store, event);
+      }
+      out.endArray();
+    } catch (IOException e) {
+      // Writing to memory does not fail.
+      throw new UncheckedIOException(e);
+    }
+    return json.toString();
+  }
+
+  /**
+   * Returns every attendee's merged busy time in {@code store}, in one pass over its columns. The
+   * store numbers its strings in sorted order, so the attendees come out sorted by name.
+   */
+  private static Map<String, Collection<TimeRange>> storeBusyRanges(BinaryEventStore store) {
+    // Counts the events of each string id, then lays their packed ranges out one id after another.
+    int[] offsets = new int[store.getStringCount() + 1];
+    for (int event = 0; event < store.size(); event++) {
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        offsets[store.getAttendeeId(event, i) + 1]++;
+      }
+    }
+    for (int id = 0; id < store.getStringCount(); id++) {
+      offsets[id + 1] += offsets[id];
+    }
+    long[] ranges = new long[offsets[store.getStringCount()]];
+    int[] next = Arrays.copyOf(offsets, store.getStringCount());
+    for (int event = 0; event < store.size(); event++) {
+      long range = PackedTimeRange.fromStartEnd(store.getStart(event), store.getEnd(event), false);
+      for (int i = 0; i < store.getAttendeeCount(event); i++) {
+        ranges[next[store.getAttendeeId(event, i)]++] = range;
+      }
+    }
+
+    Map<String, Collection<TimeRange>> busy = new LinkedHashMap<String, Collection<TimeRange>>();
+    for (int id = 0; id < store.getStringCount(); id++) {
+      if (offsets[id] == offsets[id + 1]) {
+        continue;
+      }
+      Arrays.sort(ranges, offsets[id], offsets[id + 1]);
+      List<TimeRange> merged = new ArrayList<TimeRange>();
+      int start = PackedTimeRange.start(ranges[offsets[id]]);
+      int end = PackedTimeRange.end(ranges[offsets[id]]);
+      for (int i = offsets[id] + 1; i < offsets[id + 1]; i++) {
+        if (PackedTimeRange.start(ranges[i]) <= end) {
+          end = Math.max(end, PackedTimeRange.end(ranges[i]));
+          continue;
+        }
+        merged.add(TimeRange.fromStartEnd(start, end, false));
+        start = PackedTimeRange.start(ranges[i]);
+        end = PackedTimeRange.end(ranges[i]);
+      }
+      merged.add(TimeRange.fromStartEnd(start, end, false));
+      busy.put(store.getString(id), merged);
+    }
+    return busy;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      // Writing to memory does not fail.
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static String sha256Hex(byte[] bytes) {
+    try {
+      StringBuilder hex = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
   }
 }
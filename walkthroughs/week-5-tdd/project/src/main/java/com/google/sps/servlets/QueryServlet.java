@@ -14,14 +14,21 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.BinaryEventStore;
 import com.google.sps.FindMeetingQuery;
+import com.google.sps.FreeBusyEncoding;
+import com.google.sps.MeetingQueryCache;
 import com.google.sps.MeetingRequest;
+import com.google.sps.MeetingRequestAdapter;
 import com.google.sps.TimeRange;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.FilterReader;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.Reader;
 import java.util.Collection;
+import java.util.Locale;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +36,146 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // Bodies longer than this are rejected without being parsed.
+  private static final int MAX_BODY_CHARS = 64 * 1024;
+
+  // Requests with more required and optional attendees than this are rejected while being parsed.
+  private static final int MAX_ATTENDEES = 1000;
+
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter(MAX_ATTENDEES))
+      .create();
+
+  // Repeated requests for the same attendees and duration are answered from here until the
+  // events change.
+  private static final MeetingQueryCache CACHE = new MeetingQueryCache(1024);
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    long requestStart = System.nanoTime();
+
+    // The meeting times can be sent as a compact FreeBusyEncoding string instead of JSON objects.
+    FreeBusyEncoding.Format format = null;
+    String formatParameter = request.getParameter("format");
+    if (formatParameter != null) {
+      try {
+        format = FreeBusyEncoding.Format.valueOf(formatParameter.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "unknown format " + formatParameter);
+        return;
+      }
+    }
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    if (request.getContentLengthLong() > MAX_BODY_CHARS) {
+      response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+      return;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    // Convert the JSON to an instance of MeetingRequest, failing on the first invalid value.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = GSON.fromJson(
+          new LimitedReader(request.getReader(), MAX_BODY_CHARS), MeetingRequest.class);
+    } catch (JsonParseException e) {
+      // Gson wraps errors from the reader, including the one for a body that is too long.
+      if (e.getCause() instanceof BodyTooLargeException) {
+        response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+      } else {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      }
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
+      return;
+    }
+
+    long parseNanos = System.nanoTime() - requestStart;
+
+    // Find the possible meeting times, reading the mapped event store directly if there is one.
+    BinaryEventStore store = EventSource.getStore();
+    FindMeetingQuery finder = new FindMeetingQuery();
+    Collection<TimeRange> answer = (store != null)
+        ? finder.query(store, meetingRequest)
+        : CACHE.query(EventSource.getRepository().snapshot(), meetingRequest, finder);
+    response.setHeader("Server-Timing",
+        serverTiming(parseNanos, finder, System.nanoTime() - requestStart));
 
     // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    String jsonResponse = (format == null)
+        ? GSON.toJson(answer)
+        : GSON.toJson(FreeBusyEncoding.encode(format, answer));
 
     // Send the JSON back as the response
     response.setContentType("application/json");
     response.getWriter().println(jsonResponse);
   }
+
+  /**
+   * Formats how long each phase of the request took for the Server-Timing header, which browsers
+   * show next to the request in their developer tools. A query answered from the cache has no
+   * scan, sort or extract time.
+   */
+  private static String serverTiming(long parseNanos, FindMeetingQuery finder, long totalNanos) {
+    StringBuilder timing = new StringBuilder();
+    appendTiming(timing, "parse", parseNanos);
+    if (finder.getCacheHits() > 0) {
+      timing.append("cache;desc=\"hit\", ");
+    } else {
+      appendTiming(timing, "scan", finder.getScanNanos());
+      appendTiming(timing, "sort", finder.getSortNanos());
+      appendTiming(timing, "extract", finder.getExtractNanos());
+    }
+    appendTiming(timing, "total", totalNanos);
+    return timing.substring(0, timing.length() - 2);
+  }
+
+  private static void appendTiming(StringBuilder timing, String name, long nanos) {
+    timing.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    timing.append(", ");
+  }
+
+  /**
+   * Thrown by {@code LimitedReader} when the body is longer than it allows.
+   */
+  private static final class BodyTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    BodyTooLargeException() {
+      super("request body is too large");
+    }
+  }
+
+  /**
+   * Reads at most a fixed number of characters, so that a body without a Content-Length cannot
+   * make the parser read forever.
+   */
+  private static final class LimitedReader extends FilterReader {
+    private long remaining;
+
+    LimitedReader(Reader in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      char[] buffer = new char[1];
+      return (read(buffer, 0, 1) < 0) ? -1 : buffer[0];
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      // Asks for one character past the limit, to tell a body that ends exactly at the limit from
+      // a longer one.
+      int count = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+      if (count > 0) {
+        remaining -= count;
+        if (remaining < 0) {
+          throw new BodyTooLargeException();
+        }
+      }
+      return count;
+    }
+  }
 }
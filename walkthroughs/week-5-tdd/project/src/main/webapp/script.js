@@ -29,9 +29,13 @@ function sendMeetingRequest() {
   // split it into an array of names
   const optionalAttendees = optionalAttendeesNamesString.split(/\s*,\s*/);
 
+  // an empty quorum means that every attendee must be free
+  const minAttendees = Number(document.getElementById('min-attendees').value);
+
   // Create the request to send to the server using the data we collected from
   // the web form.
-  const meetingRequest = new MeetingRequest(duration, attendees, optionalAttendees);
+  const meetingRequest =
+      new MeetingRequest(duration, attendees, optionalAttendees, minAttendees);
 
   queryServer(meetingRequest).then((timeRanges) => {
     updateResultsOnPage(timeRanges);
@@ -92,10 +96,11 @@ function timeToString(totalMinutes) {
  * Request for possible meeting times.
  */
 class MeetingRequest {
-  constructor(duration, attendees, optional_attendees) {
+  constructor(duration, attendees, optional_attendees, min_attendees) {
     this.duration = duration;
     this.attendees = attendees;
     this.optional_attendees = optional_attendees;
+    this.min_attendees = min_attendees;
   }
 }
 
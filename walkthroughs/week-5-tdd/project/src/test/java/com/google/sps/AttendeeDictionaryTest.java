@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private AttendeeDictionary dictionary;
+
+  @Before
+  public void setUp() {
+    dictionary = new AttendeeDictionary();
+  }
+
+  @Test
+  public void idsAreDenseAndStable() {
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(PERSON_B, dictionary.getName(1));
+  }
+
+  @Test
+  public void internAllSortsAndRemovesDuplicates() {
+    dictionary.intern(PERSON_C);
+
+    int[] actual = dictionary.internAll(Arrays.asList(PERSON_B, PERSON_C, PERSON_A, PERSON_B));
+    int[] expected = {0, 1, 2};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void lookupNeverGrowsTheDictionary() {
+    dictionary.intern(PERSON_A);
+
+    BitSet actual = dictionary.toBitSet(Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(AttendeeDictionary.NOT_FOUND, dictionary.lookup(PERSON_B));
+    Assert.assertEquals(1, dictionary.size());
+    Assert.assertEquals(1, actual.cardinality());
+    Assert.assertTrue(actual.get(0));
+  }
+}
@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityHistogramTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final int DAY = TimeRange.WHOLE_DAY.duration();
+
+  @Test
+  public void countsFreeAttendeesPerRun() {
+    // A is double-booked from 8:00 to 9:00, B is busy from 8:30 to 9:00 and C is always free.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    AvailabilityHistogram histogram =
+        AvailabilityHistogram.compute(events, Arrays.asList(PERSON_A, PERSON_B, PERSON_C), 15);
+
+    List<AvailabilityHistogram.Run> actual = histogram.getRuns();
+    List<AvailabilityHistogram.Run> expected = Arrays.asList(
+        new AvailabilityHistogram.Run(0, TIME_0800AM, 3),
+        new AvailabilityHistogram.Run(TIME_0800AM, TIME_0830AM, 2),
+        new AvailabilityHistogram.Run(TIME_0830AM, TIME_0900AM, 1),
+        new AvailabilityHistogram.Run(TIME_0900AM, DAY, 3));
+
+    Assert.assertEquals(3, histogram.getAttendees());
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void partiallyBusyBucketsCountAsBusy() {
+    // An event from 8:30 to 9:00 blocks the whole 8:00 to 9:00 hour.
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    List<AvailabilityHistogram.Run> actual =
+        AvailabilityHistogram.compute(events, Arrays.asList(PERSON_A), 60).getRuns();
+    List<AvailabilityHistogram.Run> expected = Arrays.asList(
+        new AvailabilityHistogram.Run(0, TIME_0800AM, 1),
+        new AvailabilityHistogram.Run(TIME_0800AM, TIME_0900AM, 0),
+        new AvailabilityHistogram.Run(TIME_0900AM, DAY, 1));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEmptyBuckets() {
+    AvailabilityHistogram.compute(Arrays.asList(), Arrays.asList(PERSON_A), 0);
+  }
+}
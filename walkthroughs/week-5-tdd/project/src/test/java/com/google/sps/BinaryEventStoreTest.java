@@ -0,0 +1,165 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BinaryEventStoreTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final List<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+          Arrays.asList(PERSON_B, PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+          Arrays.asList(PERSON_C)),
+      new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+          Arrays.asList()));
+
+  private Path file;
+  private BinaryEventStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("events", ".bin");
+    BinaryEventStore.write(EVENTS, file);
+    store = BinaryEventStore.open(file);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void roundTrip() {
+    Assert.assertEquals(EVENTS.size(), store.size());
+    Assert.assertEquals(EVENTS, store.toEvents());
+  }
+
+  @Test
+  public void columnsMatchEvents() {
+    Assert.assertEquals(TIME_0800AM, store.getStart(0));
+    Assert.assertEquals(TIME_0900AM, store.getEnd(0));
+    Assert.assertEquals(2, store.getAttendeeCount(0));
+    Assert.assertEquals(PERSON_A, store.getString(store.getAttendeeId(0, 0)));
+    Assert.assertEquals(PERSON_B, store.getString(store.getAttendeeId(0, 1)));
+    Assert.assertEquals(0, store.getAttendeeCount(2));
+  }
+
+  @Test
+  public void lookup() {
+    Assert.assertEquals(PERSON_C, store.getString(store.lookup(PERSON_C)));
+    Assert.assertEquals(BinaryEventStore.NOT_FOUND, store.lookup("Person Z"));
+  }
+
+  @Test
+  public void lookupComparesCharsLikeTheSort() throws IOException {
+    // U+FF21 sorts after the surrogate pair of U+1F600 as chars, but before it as UTF-8 bytes.
+    List<String> names = Arrays.asList("\uFF21", "\uD83D\uDE00", "Zo\u00EB", "Zoe", "Zo");
+    Path other = Files.createTempFile("events", ".bin");
+    try {
+      BinaryEventStore.write(
+          Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY, names)), other);
+      BinaryEventStore otherStore = BinaryEventStore.open(other);
+      for (String name : names) {
+        Assert.assertEquals(name, otherStore.getString(otherStore.lookup(name)));
+      }
+      Assert.assertEquals(BinaryEventStore.NOT_FOUND, otherStore.lookup("Zoey"));
+      Assert.assertEquals(BinaryEventStore.NOT_FOUND, otherStore.lookup("\uD83D"));
+    } finally {
+      Files.deleteIfExists(other);
+    }
+  }
+
+  @Test
+  public void notAnEventStore() throws IOException {
+    Files.write(file, new byte[64]);
+    try {
+      BinaryEventStore.open(file);
+      Assert.fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test
+  public void queryMatchesEvents() {
+    FindMeetingQuery query = new FindMeetingQuery();
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_C), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> expected = query.query(EVENTS, request);
+    Collection<TimeRange> actual = query.query(store, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void histogramMatchesEvents() {
+    List<String> attendees = Arrays.asList(PERSON_A, PERSON_C, "Person Z");
+
+    AvailabilityHistogram expected = AvailabilityHistogram.compute(EVENTS, attendees, 15);
+    AvailabilityHistogram actual = AvailabilityHistogram.compute(store, attendees, 15);
+
+    Assert.assertEquals(expected.getAttendees(), actual.getAttendees());
+    Assert.assertEquals(expected.getRuns(), actual.getRuns());
+  }
+
+  @Test
+  public void storeEventsWriteLikeEvents() throws IOException {
+    EventAdapter adapter = new EventAdapter();
+    for (int event = 0; event < store.size(); event++) {
+      StringWriter actual = new StringWriter();
+      EventAdapter.writeStoreEvent(new JsonWriter(actual), store, event);
+
+      Assert.assertEquals(adapter.toJson(EVENTS.get(event)), actual.toString());
+    }
+  }
+
+  @Test
+  public void unknownAttendeesAreNeverBusy() {
+    FindMeetingQuery query = new FindMeetingQuery();
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person Z"), DURATION_60_MINUTES);
+
+    Collection<TimeRange> actual = query.query(store, request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+}
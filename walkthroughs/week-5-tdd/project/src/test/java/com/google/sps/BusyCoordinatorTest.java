@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyCoordinatorTest {
+  private static final int PARTITIONS = 3;
+
+  private final List<String> people = new ArrayList<>();
+  private final List<Event> events = new ArrayList<>();
+  private final List<BusyWorker> workers = new ArrayList<>();
+  private BusyCoordinator coordinator;
+
+  @Before
+  public void setUp() throws IOException {
+    // Random events between ten people, some of them shared between partitions.
+    Random random = new Random(3);
+    for (int i = 0; i < 10; i++) {
+      people.add("Person " + i);
+    }
+    for (int i = 0; i < 40; i++) {
+      List<String> attendees = new ArrayList<>(people);
+      Collections.shuffle(attendees, random);
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(TimeRange.END_OF_DAY), random.nextInt(90)),
+          attendees.subList(0, 1 + random.nextInt(3))));
+    }
+
+    // The workers run on threads here, but talk to the coordinator over loopback sockets just like
+    // workers in their own processes.
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      BusyWorker worker = BusyWorker.start(events, partition, PARTITIONS);
+      workers.add(worker);
+      addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort()));
+    }
+    coordinator = new BusyCoordinator(addresses);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    coordinator.close();
+    for (BusyWorker worker : workers) {
+      worker.close();
+    }
+  }
+
+  @Test
+  public void matchesSingleCalendar() {
+    Random random = new Random(5);
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (int i = 0; i < 20; i++) {
+      List<String> attendees = new ArrayList<>(people);
+      Collections.shuffle(attendees, random);
+      MeetingRequest request = new MeetingRequest(
+          attendees.subList(0, 1 + random.nextInt(4)), 15 + random.nextInt(60));
+      request.addOptionalAttendee(attendees.get(5));
+
+      Collection<TimeRange> expected = query.query(events, request);
+      Collection<TimeRange> actual = coordinator.query(request);
+
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void unknownAttendeesAreFree() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Nobody"), 30);
+
+    Collection<TimeRange> actual = coordinator.query(request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+
+  @Test
+  public void silentWorkerTimesOut() throws IOException {
+    // Accepts the connection but never answers.
+    try (ServerSocket silent = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+         BusyCoordinator impatient = new BusyCoordinator(Arrays.asList(
+             new InetSocketAddress(InetAddress.getLoopbackAddress(), silent.getLocalPort())), 200)) {
+      impatient.query(new MeetingRequest(Arrays.asList("Person 0"), 30));
+      Assert.fail("expected the query to time out");
+    } catch (UncheckedIOException e) {
+      Assert.assertTrue(e.getCause() instanceof SocketTimeoutException);
+    }
+  }
+
+  @Test
+  public void storeWorkersMatchEventWorkers() throws IOException {
+    Path file = Files.createTempFile("events", ".bin");
+    List<BusyWorker> storeWorkers = new ArrayList<>();
+    try {
+      BinaryEventStore.write(events, file);
+      BinaryEventStore store = BinaryEventStore.open(file);
+      for (int partition = 0; partition < PARTITIONS; partition++) {
+        storeWorkers.add(BusyWorker.start(store, partition, PARTITIONS));
+      }
+
+      for (int partition = 0; partition < PARTITIONS; partition++) {
+        Assert.assertArrayEquals(workers.get(partition).getBusyTimes(people),
+            storeWorkers.get(partition).getBusyTimes(people));
+      }
+    } finally {
+      for (BusyWorker worker : storeWorkers) {
+        worker.close();
+      }
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void closeDropsOpenConnections() throws IOException {
+    BusyWorker worker = BusyWorker.start(events, 0, PARTITIONS);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), worker.getPort())) {
+      socket.setSoTimeout(5000);
+      // An answered request shows that the worker is serving the connection.
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      out.writeInt(0);
+      Assert.assertEquals(0, in.readInt());
+
+      worker.close();
+
+      Assert.assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  public void negativeAttendeeCountDropsConnection() throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), workers.get(0).getPort())) {
+      socket.setSoTimeout(5000);
+      new DataOutputStream(socket.getOutputStream()).writeInt(-1);
+
+      Assert.assertEquals(-1, socket.getInputStream().read());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumIsNotSupported() {
+    coordinator.query(new MeetingRequest(people.subList(0, 3), 30, 2));
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_3 = new Event("Event 3",
+      TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES),
+      Arrays.asList(PERSON_A, PERSON_B));
+
+  private Calendar calendar;
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    calendar = new Calendar();
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void overlappingAndTouchingEventsAreMerged() {
+    // Events  : |--1--|
+    //              |--2--|
+    //                    |-3-|
+    // Busy    : |------------|
+    calendar.addEvent(EVENT_1);
+    calendar.addEvent(EVENT_2);
+    calendar.addEvent(EVENT_3);
+
+    List<TimeRange> actual = new ArrayList<>(calendar.getBusyRanges(PERSON_A));
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void removingAnEventSplitsTheMergedRange() {
+    calendar.addEvent(EVENT_1);
+    calendar.addEvent(EVENT_2);
+    calendar.addEvent(EVENT_3);
+
+    Assert.assertTrue(calendar.removeEvent(EVENT_2));
+
+    List<TimeRange> actual = new ArrayList<>(calendar.getBusyRanges(PERSON_A));
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void duplicateEventsAreRemovedOneAtATime() {
+    calendar.addEvent(EVENT_1);
+    calendar.addEvent(EVENT_1);
+
+    Assert.assertTrue(calendar.removeEvent(EVENT_1));
+    Assert.assertEquals(1, calendar.size());
+    Assert.assertEquals(Arrays.asList(EVENT_1.getWhen()),
+        new ArrayList<>(calendar.getBusyRanges(PERSON_A)));
+
+    Assert.assertTrue(calendar.removeEvent(EVENT_1));
+    Assert.assertFalse(calendar.removeEvent(EVENT_1));
+    Assert.assertTrue(calendar.getBusyRanges(PERSON_A).isEmpty());
+  }
+
+  @Test
+  public void queryMatchesQueryOverEvents() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    for (Event event : events) {
+      calendar.addEvent(event);
+    }
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Amelia", "Liam", "Noah"), DURATION_30_MINUTES);
+    request.addOptionalAttendee("Olivia");
+
+    Assert.assertEquals(query.query(events, request), query.query(calendar, request));
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ConflictDetectorTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void overlappingEventsOfOneAttendee() {
+    Event first = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+    Event second = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event touching = new Event("Event 3",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+
+    List<ConflictDetector.Conflict> actual = new ArrayList<>();
+    ConflictDetector.findConflicts(Arrays.asList(touching, second, first), actual::add);
+
+    // The first and third events touch but do not overlap.
+    Assert.assertEquals(Arrays.asList(new ConflictDetector.Conflict(PERSON_A, first, second),
+        new ConflictDetector.Conflict(PERSON_A, second, touching)), actual);
+  }
+
+  @Test
+  public void eventWithoutDurationInsideAnother() {
+    Event outer = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+    Event point = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0800AM, 0), Arrays.asList(PERSON_A));
+
+    List<ConflictDetector.Conflict> actual = new ArrayList<>();
+    ConflictDetector.findConflicts(Arrays.asList(point, outer), actual::add);
+
+    Assert.assertEquals(
+        Arrays.asList(new ConflictDetector.Conflict(PERSON_A, outer, point)), actual);
+  }
+
+  @Test
+  public void matchesAllPairs() {
+    Random random = new Random(42);
+    List<String> people = Arrays.asList(PERSON_A, PERSON_B, "Person C", "Person D");
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      int start = random.nextInt(TimeRange.END_OF_DAY);
+      int duration = random.nextInt(120);
+      List<String> attendees = new ArrayList<>(people);
+      Collections.shuffle(attendees, random);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          attendees.subList(0, 1 + random.nextInt(2))));
+    }
+
+    Set<String> expected = new HashSet<>();
+    for (int i = 0; i < events.size(); i++) {
+      for (int j = i + 1; j < events.size(); j++) {
+        Event a = events.get(i);
+        Event b = events.get(j);
+        if (!a.getWhen().overlaps(b.getWhen())) {
+          continue;
+        }
+        for (String attendee : a.getAttendees()) {
+          if (b.getAttendees().contains(attendee)) {
+            expected.add(key(attendee, a, b));
+          }
+        }
+      }
+    }
+
+    Set<String> actual = Collections.synchronizedSet(new HashSet<>());
+    ConflictDetector.findConflictsInParallel(events, conflict ->
+        actual.add(key(conflict.getAttendee(), conflict.getFirst(), conflict.getSecond())));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Names a conflict without depending on which of the two events comes first. */
+  private static String key(String attendee, Event a, Event b) {
+    String first = a.getTitle();
+    String second = b.getTitle();
+    return attendee + ":" + (first.compareTo(second) < 0 ? first + "," + second : second + "," + first);
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventAdapterTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+
+  private static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(Event.class, new EventAdapter()).create();
+
+  @Test
+  public void writesAttendeeNames() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, 30),
+        Arrays.asList(PERSON_A, PERSON_B));
+
+    JsonObject json = new Gson().fromJson(GSON.toJson(event), JsonObject.class);
+
+    Assert.assertEquals("Event 1", json.get("title").getAsString());
+    Assert.assertEquals(TIME_0800AM, json.getAsJsonObject("when").get("start").getAsInt());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)), new HashSet<>(
+        Arrays.asList(new Gson().fromJson(json.get("attendees"), String[].class))));
+    Assert.assertFalse(json.has("recurrence"));
+  }
+
+  @Test
+  public void roundTrip() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, 30),
+        Arrays.asList(PERSON_A), Recurrence.weekly(18000, 2));
+
+    Assert.assertEquals(event, GSON.fromJson(GSON.toJson(event), Event.class));
+  }
+
+  @Test
+  public void attendeesAreReadFromTheDictionary() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, 30),
+        Arrays.asList(PERSON_B, PERSON_A, PERSON_A));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)), event.getAttendees());
+    Assert.assertTrue(event.getAttendees().contains(PERSON_A));
+    Assert.assertFalse(event.getAttendees().contains("Nobody"));
+  }
+}
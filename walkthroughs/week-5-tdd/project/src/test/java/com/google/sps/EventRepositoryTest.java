@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventRepositoryTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_3 = new Event("Event 3",
+      TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES),
+      Arrays.asList(PERSON_A, PERSON_B));
+
+  private EventRepository repository;
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    repository = new EventRepository();
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void batchIsPublishedAtOnce() {
+    CalendarSnapshot before = repository.snapshot();
+
+    CalendarSnapshot after = repository.update(batch -> batch.add(EVENT_1).add(EVENT_2));
+
+    Assert.assertEquals(0, before.size());
+    Assert.assertEquals(2, after.size());
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+    Assert.assertSame(after, repository.snapshot());
+  }
+
+  @Test
+  public void busyRangesAreMerged() {
+    repository.update(batch -> batch.add(EVENT_1).add(EVENT_2).add(EVENT_3));
+
+    Collection<TimeRange> actual = repository.snapshot().getBusyRanges(PERSON_A);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)), actual);
+  }
+
+  @Test
+  public void oldSnapshotsDoNotChange() {
+    repository.update(batch -> batch.add(EVENT_1).add(EVENT_3));
+    CalendarSnapshot before = repository.snapshot();
+
+    repository.remove(EVENT_1);
+
+    Assert.assertEquals(2, before.size());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES)),
+        before.getBusyRanges(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES)),
+        repository.snapshot().getBusyRanges(PERSON_A));
+  }
+
+  @Test
+  public void unchangedAttendeesAreShared() {
+    repository.update(batch -> batch.add(EVENT_1).add(EVENT_3));
+    CalendarSnapshot before = repository.snapshot();
+
+    CalendarSnapshot after = repository.add(EVENT_2);
+
+    int personB = AttendeeDictionary.getInstance().lookup(PERSON_B);
+    Assert.assertSame(before.getBusyTimes(personB), after.getBusyTimes(personB));
+  }
+
+  @Test
+  public void removingMissingEventDoesNothing() {
+    repository.add(EVENT_1);
+
+    CalendarSnapshot actual = repository.remove(EVENT_2);
+
+    Assert.assertEquals(Arrays.asList(EVENT_1), actual.getEvents());
+  }
+
+  @Test
+  public void queryMatchesEvents() {
+    repository.update(batch -> batch.add(EVENT_1).add(EVENT_3));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+
+    Collection<TimeRange> expected =
+        query.query(Arrays.asList(EVENT_1, EVENT_3), request);
+    Collection<TimeRange> actual = query.query(repository.snapshot(), request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void concurrentReadersSeeWholeBatches() throws InterruptedException {
+    // Both events are always added and removed together, so readers see zero or two events.
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 200; i++) {
+        repository.update(batch -> batch.add(EVENT_1).add(EVENT_3));
+        repository.update(batch -> batch.remove(EVENT_1).remove(EVENT_3));
+      }
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      CalendarSnapshot snapshot = repository.snapshot();
+      Assert.assertEquals(snapshot.size() == 0, snapshot.getBusyRanges(PERSON_B).isEmpty());
+      Assert.assertTrue(snapshot.size() == 0 || snapshot.size() == 2);
+    }
+    writer.join();
+    Assert.assertEquals(0, repository.snapshot().size());
+  }
+}
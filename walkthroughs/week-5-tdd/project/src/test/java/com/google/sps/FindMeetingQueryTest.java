@@ -14,11 +14,16 @@
 
 package com.google.sps;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -414,5 +419,385 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void suggestEarliestSlots() {
+    // The first gap only fits one slot, so the second one comes from the next gap.
+    //
+    // Options : |--A--|1|B|--2--|
+    // Suggest :       |1| |2|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    List<TimeRange> actual = query.suggest(events, request, 2, SlotRanking.earliest());
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void suggestSeveralSlotsInOneGap() {
+    // The only free gap is from 9:00 to 11:00, which fits a slot every half hour.
+    //
+    // Events  : |---A---|       |---A---|
+    // Day     : |-----------------------|
+    // Suggest :         |1|2|3|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+
+    List<TimeRange> actual = query.suggest(events, request, 3, SlotRanking.earliest());
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            TimeRange.fromStartDuration(TIME_0930AM, DURATION_60_MINUTES),
+            TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void suggestLeastFragmentation() {
+    // The gap between the two events is exactly as long as the meeting, so it fits best.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual = query.suggest(events, request, 1, SlotRanking.leastFragmentation());
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void suggestLeastFragmentationOnlyAtGapStarts() {
+    // The only free gap is from 9:00 to 11:00. Starting anywhere but 9:00 would leave two pieces,
+    // so only one slot is suggested even though three were asked for.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+
+    List<TimeRange> actual = query.suggest(events, request, 3, SlotRanking.leastFragmentation());
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void suggestClosestToPreferredTime() {
+    // Prefer 9:00, which is taken. The slot right after the event starts 30 minutes away and the
+    // slot right before it starts 60 minutes away. Slots further away come after those.
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual =
+        query.suggest(events, request, 2, SlotRanking.closestTo(TIME_0900AM));
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAcrossSeveralDays() {
+    // Person A is busy all of the first day except 8:00 to 9:00, and has a meeting on the second
+    // day. Ask for an hour anywhere in the two days.
+    long firstDay = 18262;
+    EventIndex index = new EventIndex();
+    index.add(firstDay, new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), Arrays.asList(PERSON_A)));
+    index.add(firstDay, new Event("Event 2",
+        TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_A)));
+    index.add(firstDay + 1, new Event("Event 3",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+
+    // Someone else's event on the third day is outside of the window and must not matter.
+    index.add(firstDay + 2, new Event("Event 4", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    long dayStart = firstDay * EpochRange.MINUTES_PER_DAY;
+    long nextDayStart = dayStart + EpochRange.MINUTES_PER_DAY;
+
+    Collection<EpochRange> actual = query.query(index, request, EpochRange.ofDays(firstDay, 2));
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(dayStart + TIME_0800AM, dayStart + TIME_0900AM),
+        EpochRange.fromStartEnd(nextDayStart, nextDayStart + TIME_1000AM),
+        EpochRange.fromStartEnd(
+            nextDayStart + TIME_1100AM, nextDayStart + EpochRange.MINUTES_PER_DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAcrossRecurringEvents() {
+    // Person A has a standup every day from 9:00 to 10:00, a one-off meeting on the second day
+    // from 8:00 to 9:00, and a weekly meeting from 10:00 to 11:00 that started the week before and
+    // takes place for the last time on the second day.
+    long firstDay = 18262;
+    EventIndex index = new EventIndex();
+    index.addRecurring(new Event("Standup",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A),
+        Recurrence.daily(firstDay, 1)));
+    index.addRecurring(new Event("Weekly",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A),
+        Recurrence.weekly(firstDay - 6, 1).withCount(2)));
+    index.add(firstDay + 1, new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+
+    // A rule that ended before the window must not matter.
+    index.addRecurring(new Event("Old", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A),
+        Recurrence.daily(firstDay - 10, 1).withUntil(firstDay - 1)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    long dayStart = firstDay * EpochRange.MINUTES_PER_DAY;
+    long nextDayStart = dayStart + EpochRange.MINUTES_PER_DAY;
+
+    Collection<EpochRange> actual = query.query(index, request, EpochRange.ofDays(firstDay, 2));
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(dayStart, dayStart + TIME_0900AM),
+        EpochRange.fromStartEnd(dayStart + TIME_1000AM, nextDayStart + TIME_0800AM),
+        EpochRange.fromStartEnd(
+            nextDayStart + TIME_1100AM, nextDayStart + EpochRange.MINUTES_PER_DAY));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void roomsAreChosenByBestFit() {
+    // A and B need a room with two seats. The one-seat room is too small, the two-seat room is
+    // booked until 9:00 and from 10:00 to 11:00, and the big room is always free. The parts of
+    // the day the medium room cannot take go to the big room.
+    //
+    // Events  :       |--A--|
+    // Medium  : |-----------|     |--|
+    // Day     : |-----------------------------|
+    // Options : |-big-|     |-med-|big|--med--|
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+    Room tiny = new Room("Tiny", 1, Arrays.asList());
+    Room medium = new Room("Medium", 2,
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES)));
+    Room big = new Room("Big", 10, Arrays.asList());
+    RoomIndex rooms = new RoomIndex(Arrays.asList(big, tiny, medium));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<RoomBooking> actual = query.query(events, request, rooms);
+    Collection<RoomBooking> expected = Arrays.asList(
+        new RoomBooking(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), big),
+        new RoomBooking(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), medium),
+        new RoomBooking(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false), big),
+        new RoomBooking(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true), medium));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noRoomIsBigEnough() {
+    Room tiny = new Room("Tiny", 1, Arrays.asList());
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<RoomBooking> actual =
+        query.query(Arrays.asList(), request, new RoomIndex(Arrays.asList(tiny)));
+
+    Assert.assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  public void optionalAttendeeDroppedForLackOfSeats() {
+    // With the optional attendee, three seats are needed, but the only room has two.
+    Room medium = new Room("Medium", 2, Arrays.asList());
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<RoomBooking> actual =
+        query.query(Arrays.asList(), request, new RoomIndex(Arrays.asList(medium)));
+
+    Assert.assertEquals(Arrays.asList(new RoomBooking(TimeRange.WHOLE_DAY, medium)), actual);
+  }
+
+  @Test
+  public void workingHoursAcrossTimeZones() {
+    // A works 9:00 to 17:00 in UTC and B works 9:00 to 17:00 in UTC+1, which is 8:00 to 16:00 in
+    // UTC. A has a meeting from 9:00 to 10:00.
+    //
+    // Events  :          |--A--|
+    // Hours A :          |---------------|
+    // Hours B :      |---------------|
+    // Day     : |-----------------------------|
+    // Options :                |---1-----|
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_A, WorkingHours.of(TIME_0900AM, TimeRange.getTimeInMinutes(17, 0), 0));
+    hours.put(PERSON_B, WorkingHours.of(TIME_0900AM, TimeRange.getTimeInMinutes(17, 0), 60));
+    FindMeetingQuery workingQuery = new FindMeetingQuery(hours);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES);
+
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.getTimeInMinutes(16, 0), false));
+
+    Assert.assertEquals(expected, workingQuery.query(events, request));
+    Assert.assertEquals(expected, workingQuery.query(new Calendar(events), request));
+    Assert.assertEquals(
+        expected, workingQuery.query(new EventRepository(events).snapshot(), request));
+  }
+
+  @Test
+  public void quorumCountsAttendeesOutsideWorkingHoursAsBusy() {
+    // Two of A, B and C must be free. B is in a meeting from 8:00 and C only works until 9:00, so
+    // A and C are the last two free people until 9:00.
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_C, WorkingHours.of(TimeRange.START_OF_DAY, TIME_0900AM, 0));
+    FindMeetingQuery workingQuery = new FindMeetingQuery(hours);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0800AM, TimeRange.END_OF_DAY, true), Arrays.asList(PERSON_B)));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES, 2);
+
+    Collection<TimeRange> actual = workingQuery.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumIgnoresOneBusyAttendee() {
+    // Only two of the three people need to be free. A's and B's events don't overlap, so there is
+    // always a quorum except while both A and C are busy.
+    //
+    // Events  :       |--A--|     |--B--|
+    //                     |--C--|
+    // Day     : |-----------------------------|
+    // Options : |---1---|   |---------2-------|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES, 2);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumCountsDoubleBookedAttendeeOnce() {
+    // A is double-booked, which must not look like two busy people.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES, 2);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void fullQuorumMatchesRegularQuery() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    Collection<String> attendees = Arrays.asList("Amelia", "Liam", "Noah", "Olivia");
+
+    Collection<TimeRange> expected =
+        query.query(events, new MeetingRequest(attendees, DURATION_30_MINUTES));
+    Collection<TimeRange> actual =
+        query.queryQuorum(events, new MeetingRequest(attendees, DURATION_30_MINUTES, 4));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumOnStoreMatchesQuorumOnEvents() throws IOException {
+    Collection<Event> events = Arrays.asList(Events.events);
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList("Amelia", "Liam", "Noah", "Olivia", "Nobody"), DURATION_30_MINUTES, 3);
+    Path file = Files.createTempFile("events", ".bin");
+    try {
+      BinaryEventStore.write(events, file);
+      BinaryEventStore store = BinaryEventStore.open(file);
+
+      Assert.assertEquals(query.queryQuorum(events, request), query.query(store, request));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void quorumOnCalendarMatchesQuorumOnEvents() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList("Amelia", "Liam", "Noah", "Olivia", "Nobody"), DURATION_30_MINUTES, 3);
+
+    Assert.assertEquals(query.queryQuorum(events, request),
+        query.query(new Calendar(events), request));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumIsNotSupportedOnWindows() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES, 1);
+
+    query.query(new EventIndex(), request, EpochRange.ofDays(18262, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumIsNotSupportedWithRooms() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES, 1);
+
+    query.query(Arrays.asList(), request,
+        new RoomIndex(Arrays.asList(new Room("Big", 10, Arrays.asList()))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumIsNotSupportedBySuggest() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES, 1);
+
+    query.suggest(Arrays.asList(), request, 1, SlotRanking.earliest());
+  }
+}
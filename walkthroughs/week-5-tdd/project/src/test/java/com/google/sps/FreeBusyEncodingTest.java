@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeBusyEncodingTest {
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final List<TimeRange> RANGES = Arrays.asList(
+      TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+      TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+      TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(23, 0), TimeRange.END_OF_DAY, true));
+
+  @Test
+  public void runsRoundTrip() {
+    String encoded = FreeBusyEncoding.encode(FreeBusyEncoding.Format.RUNS, RANGES);
+
+    Assert.assertEquals(RANGES, FreeBusyEncoding.decode(FreeBusyEncoding.Format.RUNS, encoded));
+  }
+
+  @Test
+  public void runsAreSmall() {
+    // The two gaps longer than 127 minutes take two bytes each and the rest one, so the 8 bytes
+    // become 12 base64 characters.
+    String encoded = FreeBusyEncoding.encode(FreeBusyEncoding.Format.RUNS, RANGES);
+
+    Assert.assertEquals(12, encoded.length());
+  }
+
+  @Test
+  public void bitmapRoundTrip() {
+    String encoded = FreeBusyEncoding.encode(FreeBusyEncoding.Format.BITMAP, RANGES);
+
+    Assert.assertEquals(240, encoded.length());
+    Assert.assertEquals(RANGES, FreeBusyEncoding.decode(FreeBusyEncoding.Format.BITMAP, encoded));
+  }
+
+  @Test
+  public void bitmapMergesTouchingRanges() {
+    List<TimeRange> touching = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES));
+
+    String encoded = FreeBusyEncoding.encode(FreeBusyEncoding.Format.BITMAP, touching);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, 90)),
+        FreeBusyEncoding.decode(FreeBusyEncoding.Format.BITMAP, encoded));
+  }
+
+  @Test
+  public void emptyDay() {
+    for (FreeBusyEncoding.Format format : FreeBusyEncoding.Format.values()) {
+      String encoded = FreeBusyEncoding.encode(format, Collections.emptyList());
+      Assert.assertEquals(Collections.emptyList(), FreeBusyEncoding.decode(format, encoded));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void runsRejectOverlappingRanges() {
+    FreeBusyEncoding.encode(FreeBusyEncoding.Format.RUNS, Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES)));
+  }
+}
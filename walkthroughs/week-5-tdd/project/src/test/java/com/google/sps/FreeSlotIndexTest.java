@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeSlotIndexTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+  private static final int DURATION_90_MINUTES = 90;
+
+  @Test
+  public void wholeDayIsFree() {
+    FreeSlotIndex index = new FreeSlotIndex();
+
+    Assert.assertEquals(TimeRange.START_OF_DAY, index.earliestFit(DURATION_30_MINUTES, 0));
+    Assert.assertEquals(TIME_0830AM, index.earliestFit(DURATION_30_MINUTES, TIME_0830AM));
+    Assert.assertEquals(FreeSlotIndex.NOT_FOUND,
+        index.earliestFit(DURATION_30_MINUTES, TimeRange.END_OF_DAY - 10));
+  }
+
+  @Test
+  public void builtFromEvents() {
+    // A is busy from 8:00 to 9:00 and B from 9:30 to 10:00, leaving half an hour in between.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM + 30, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)));
+
+    FreeSlotIndex index = new FindMeetingQuery()
+        .buildFreeSlotIndex(events, Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(TIME_0900AM, index.earliestFit(DURATION_30_MINUTES, TIME_0800AM));
+    Assert.assertEquals(TIME_1000AM, index.earliestFit(DURATION_60_MINUTES, TIME_0800AM));
+    Assert.assertEquals(TIME_0900AM + 10, index.earliestFit(20, TIME_0900AM + 10));
+  }
+
+  @Test
+  public void bookingAndReleasing() {
+    FreeSlotIndex index = new FreeSlotIndex();
+
+    index.book(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false));
+    index.book(TimeRange.fromStartDuration(TIME_0900AM + DURATION_60_MINUTES, DURATION_60_MINUTES));
+    Assert.assertEquals(TIME_0900AM, index.earliestFit(DURATION_60_MINUTES, 0));
+    Assert.assertEquals(TIME_0900AM + 2 * DURATION_60_MINUTES,
+        index.earliestFit(DURATION_90_MINUTES, 0));
+
+    index.release(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES));
+    Assert.assertEquals(TIME_0800AM, index.earliestFit(DURATION_90_MINUTES, 0));
+  }
+
+  @Test
+  public void matchesLinearScan() {
+    Random random = new Random(7);
+    FreeSlotIndex index = new FreeSlotIndex();
+    boolean[] busy = new boolean[TimeRange.WHOLE_DAY.duration()];
+    for (int step = 0; step < 500; step++) {
+      int start = random.nextInt(busy.length);
+      int end = Math.min(busy.length, start + 1 + random.nextInt(120));
+      boolean book = random.nextInt(3) > 0;
+      if (book) {
+        index.book(TimeRange.fromStartEnd(start, end, false));
+      } else {
+        index.release(TimeRange.fromStartEnd(start, end, false));
+      }
+      Arrays.fill(busy, start, end, book);
+
+      int duration = 1 + random.nextInt(90);
+      int after = random.nextInt(busy.length);
+      Assert.assertEquals(linearEarliestFit(busy, duration, after),
+          index.earliestFit(duration, after));
+    }
+  }
+
+  @Test
+  public void matchesQueryNearMidnight() {
+    // A is busy until 23:00, so an hour-long meeting would have to use the last minute of the day.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100PM, false),
+            Arrays.asList(PERSON_A)));
+    FindMeetingQuery query = new FindMeetingQuery();
+    FreeSlotIndex index = query.buildFreeSlotIndex(events, Arrays.asList(PERSON_A));
+
+    for (int duration = DURATION_60_MINUTES - 2; duration <= DURATION_60_MINUTES; duration++) {
+      Collection<TimeRange> ranges =
+          query.query(events, new MeetingRequest(Arrays.asList(PERSON_A), duration));
+      int expected =
+          ranges.isEmpty() ? FreeSlotIndex.NOT_FOUND : ranges.iterator().next().start();
+      Assert.assertEquals(expected, index.earliestFit(duration, 0));
+    }
+    Assert.assertEquals(FreeSlotIndex.NOT_FOUND, index.earliestFit(DURATION_60_MINUTES, 0));
+  }
+
+  private static int linearEarliestFit(boolean[] busy, int duration, int after) {
+    // Meetings must end by the end of the day, before the last minute.
+    int run = 0;
+    for (int minute = after; minute < TimeRange.END_OF_DAY; minute++) {
+      run = busy[minute] ? 0 : run + 1;
+      if (run == duration) {
+        return minute - duration + 1;
+      }
+    }
+    return FreeSlotIndex.NOT_FOUND;
+  }
+}
@@ -0,0 +1,244 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IcsImporterTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "person.b@example.com";
+
+  private static final long DAY = LocalDate.of(2019, 10, 15).toEpochDay();
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0100PM = TimeRange.getTimeInMinutes(13, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_90_MINUTES = 90;
+
+  private EventIndex index;
+
+  @Before
+  public void setUp() {
+    index = new EventIndex();
+  }
+
+  @Test
+  public void readsFoldedEventWithAttendees() throws IOException {
+    int imported = read(
+        "BEGIN:VCALENDAR",
+        "BEGIN:VEVENT",
+        "SUMMARY:Design review\\, part",
+        "  one",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "ATTENDEE;CN=\"Person A\";ROLE=REQ-PARTICIPANT:mailto:a@example.com",
+        "ATTENDEE:MAILTO:person.b@example.com",
+        "BEGIN:VALARM",
+        "SUMMARY:Reminder",
+        "END:VALARM",
+        "END:VEVENT",
+        "END:VCALENDAR");
+
+    Event expected = new Event("Design review, part one",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Assert.assertEquals(1, imported);
+    Assert.assertEquals(
+        Arrays.asList(EpochRange.fromDay(DAY, expected.getWhen())), occurrences(DAY, 1));
+    index.forEachOverlapping(EpochRange.ofDays(DAY, 1),
+        (when, event) -> Assert.assertEquals(expected, event));
+  }
+
+  @Test
+  public void convertsTimeZoneAndDuration() throws IOException {
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART;TZID=America/New_York:20191015T090000",
+        "DURATION:PT1H30M",
+        "END:VEVENT");
+
+    // New York is four hours behind UTC in October.
+    Assert.assertEquals(Arrays.asList(EpochRange.fromDay(DAY,
+        TimeRange.fromStartDuration(TIME_0100PM, DURATION_90_MINUTES))), occurrences(DAY, 1));
+  }
+
+  @Test
+  public void expandsWeeklyRule() throws IOException {
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "RRULE:FREQ=WEEKLY;BYDAY=TU;COUNT=3",
+        "END:VEVENT");
+
+    TimeRange when = TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES);
+    Assert.assertEquals(Arrays.asList(EpochRange.fromDay(DAY, when),
+        EpochRange.fromDay(DAY + 7, when), EpochRange.fromDay(DAY + 14, when)),
+        occurrences(DAY, 28));
+  }
+
+  @Test
+  public void unsupportedRuleKeepsFirstOccurrence() throws IOException {
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "RRULE:FREQ=MONTHLY;COUNT=3",
+        "END:VEVENT");
+
+    Assert.assertEquals(Arrays.asList(EpochRange.fromDay(DAY,
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES))), occurrences(DAY, 90));
+  }
+
+  @Test
+  public void readsAllDayEventsAndSkipsTransparentOnes() throws IOException {
+    int imported = read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "TRANSP:TRANSPARENT",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART;VALUE=DATE:20191016",
+        "END:VEVENT");
+
+    Assert.assertEquals(1, imported);
+    Assert.assertEquals(Arrays.asList(EpochRange.ofDays(DAY + 1, 1)), occurrences(DAY, 2));
+  }
+
+  @Test
+  public void skipsCancelledEvents() throws IOException {
+    int imported = read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "STATUS:CANCELLED",
+        "END:VEVENT");
+
+    Assert.assertEquals(0, imported);
+    Assert.assertTrue(occurrences(DAY, 1).isEmpty());
+  }
+
+  @Test
+  public void excludedDatesHaveNoOccurrence() throws IOException {
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "RRULE:FREQ=DAILY;COUNT=4",
+        "EXDATE:20191016T090000Z,20191017T090000Z",
+        "END:VEVENT");
+
+    TimeRange when = TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES);
+    Assert.assertEquals(Arrays.asList(EpochRange.fromDay(DAY, when),
+        EpochRange.fromDay(DAY + 3, when)), occurrences(DAY, 7));
+  }
+
+  @Test
+  public void replacementMovesItsOccurrence() throws IOException {
+    // The replacement comes first, as it may in any file.
+    int imported = read(
+        "BEGIN:VEVENT",
+        "UID:weekly@example.com",
+        "RECURRENCE-ID:20191022T090000Z",
+        "DTSTART:20191022T130000Z",
+        "DTEND:20191022T133000Z",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "UID:weekly@example.com",
+        "DTSTART:20191015T090000Z",
+        "DTEND:20191015T093000Z",
+        "RRULE:FREQ=WEEKLY;COUNT=3",
+        "END:VEVENT");
+
+    TimeRange when = TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES);
+    TimeRange moved = TimeRange.fromStartDuration(TIME_0100PM, DURATION_30_MINUTES);
+    Assert.assertEquals(2, imported);
+    Assert.assertEquals(Arrays.asList(EpochRange.fromDay(DAY, when),
+        EpochRange.fromDay(DAY + 7, moved), EpochRange.fromDay(DAY + 14, when)),
+        occurrences(DAY, 21));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroCountIsInvalid() throws IOException {
+    // Without the check, COUNT=0 would mean no count at all and repeat forever.
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART:20191015T090000Z",
+        "DURATION:PT30M",
+        "RRULE:FREQ=DAILY;COUNT=0",
+        "END:VEVENT");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidDate() throws IOException {
+    read(
+        "BEGIN:VEVENT",
+        "DTSTART:2019-10-15",
+        "END:VEVENT");
+  }
+
+  @Test
+  public void readsFilesInParallel() throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        Path file = Files.createTempFile("calendar", ".ics");
+        files.add(file);
+        Files.write(file, Arrays.asList(
+            "BEGIN:VEVENT",
+            String.format("DTSTART:201910%02dT090000Z", 15 + i),
+            "DURATION:PT30M",
+            "END:VEVENT"));
+      }
+
+      Assert.assertEquals(4, IcsImporter.readAll(files, index));
+      Assert.assertEquals(4, occurrences(DAY, 4).size());
+    } finally {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private int read(String... lines) throws IOException {
+    String text = String.join("\r\n", lines) + "\r\n";
+    return IcsImporter.read(new BufferedReader(new StringReader(text)), index);
+  }
+
+  private List<EpochRange> occurrences(long day, int days) {
+    List<EpochRange> occurrences = new ArrayList<EpochRange>();
+    index.forEachOverlapping(EpochRange.ofDays(day, days),
+        (when, event) -> occurrences.add(when));
+    return occurrences;
+  }
+}
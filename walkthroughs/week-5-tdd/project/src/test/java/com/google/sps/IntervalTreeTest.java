@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalTreeTest {
+  @Test
+  public void findsOverlappingIntervalsInStartOrder() {
+    IntervalTree<String> tree = new IntervalTree<>();
+    tree.add(30, 40, "C");
+    tree.add(0, 100, "A");
+    tree.add(10, 20, "B");
+    tree.add(50, 50, "Empty");
+
+    List<String> actual = new ArrayList<>();
+    tree.forEachOverlapping(15, 45, (start, end, value) -> actual.add(value));
+
+    Assert.assertEquals(Arrays.asList("A", "B", "C"), actual);
+  }
+
+  @Test
+  public void endIsExclusive() {
+    IntervalTree<String> tree = new IntervalTree<>();
+    tree.add(10, 20, "A");
+
+    List<String> actual = new ArrayList<>();
+    tree.forEachOverlapping(20, 30, (start, end, value) -> actual.add(value));
+    tree.forEachOverlapping(0, 10, (start, end, value) -> actual.add(value));
+
+    Assert.assertEquals(Arrays.asList(), actual);
+  }
+
+  @Test
+  public void matchesBruteForceAfterAddsAndRemoves() {
+    Random random = new Random(7);
+    IntervalTree<Integer> tree = new IntervalTree<>();
+    List<long[]> intervals = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      long start = random.nextInt(10000);
+      long[] interval = {start, start + random.nextInt(200), i};
+      intervals.add(interval);
+      tree.add(interval[0], interval[1], i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      long[] interval = intervals.remove(random.nextInt(intervals.size()));
+      Assert.assertTrue(tree.remove(interval[0], interval[1], (int) interval[2]));
+    }
+    Assert.assertEquals(intervals.size(), tree.size());
+
+    for (int i = 0; i < 100; i++) {
+      long start = random.nextInt(10000);
+      long end = start + random.nextInt(500);
+
+      List<Integer> expected = new ArrayList<>();
+      for (long[] interval : intervals) {
+        if (interval[0] < end && start < interval[1] && interval[0] < interval[1]) {
+          expected.add((int) interval[2]);
+        }
+      }
+      List<Integer> actual = new ArrayList<>();
+      tree.forEachOverlapping(start, end, (from, to, value) -> actual.add(value));
+
+      expected.sort(null);
+      actual.sort(null);
+      Assert.assertEquals(expected, actual);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingQueryCacheTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES), Arrays.asList(PERSON_B));
+
+  private EventRepository repository;
+  private MeetingQueryCache cache;
+
+  @Before
+  public void setUp() {
+    repository = new EventRepository(Arrays.asList(EVENT_1));
+    cache = new MeetingQueryCache(2);
+  }
+
+  @Test
+  public void sameAttendeesInAnyOrderHit() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest reordered =
+        new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> first = cache.query(repository.snapshot(), request);
+    Collection<TimeRange> second = cache.query(repository.snapshot(), reordered);
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void workingHoursAreNotShared() {
+    // A only works from 9:00, so the finder with working hours has a different answer.
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_A, WorkingHours.of(TIME_0900AM, TimeRange.END_OF_DAY, 0));
+    FindMeetingQuery working = new FindMeetingQuery(hours);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> all = cache.query(repository.snapshot(), request);
+    Collection<TimeRange> withHours = cache.query(repository.snapshot(), request, working);
+
+    Assert.assertEquals(0, working.getCacheHits());
+    Assert.assertEquals(working.query(repository.snapshot(), request), withHours);
+    Assert.assertNotEquals(all, withHours);
+
+    // The same working hours on another finder still hit.
+    FindMeetingQuery sameHours = new FindMeetingQuery(hours);
+    Assert.assertSame(withHours, cache.query(repository.snapshot(), request, sameHours));
+    Assert.assertEquals(1, sameHours.getCacheHits());
+  }
+
+  @Test
+  public void newVersionInvalidates() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    Collection<TimeRange> before = cache.query(repository.snapshot(), request);
+
+    repository.add(EVENT_2);
+    Collection<TimeRange> actual = cache.query(repository.snapshot(), request);
+
+    Assert.assertNotEquals(before, actual);
+    Assert.assertEquals(new FindMeetingQuery().query(repository.snapshot(), request), actual);
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    CalendarSnapshot snapshot = repository.snapshot();
+    MeetingRequest first = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest second = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    MeetingRequest third = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> firstResult = cache.query(snapshot, first);
+    cache.query(snapshot, second);
+    cache.query(snapshot, first);
+    cache.query(snapshot, third);
+
+    Assert.assertSame(firstResult, cache.query(snapshot, first));
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void unknownRequiredAttendeeStillCounts() {
+    // An unknown required attendee makes the optional attendee optional again, so the two
+    // requests must not share a result.
+    MeetingRequest withUnknown =
+        new MeetingRequest(Arrays.asList("Unknown Person"), DURATION_60_MINUTES * 23);
+    withUnknown.addOptionalAttendee(PERSON_A);
+    MeetingRequest optionalOnly = new MeetingRequest(Arrays.asList(), DURATION_60_MINUTES * 23);
+    optionalOnly.addOptionalAttendee(PERSON_A);
+
+    Collection<TimeRange> actual = cache.query(repository.snapshot(), withUnknown);
+    Collection<TimeRange> expected = cache.query(repository.snapshot(), optionalOnly);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+    Assert.assertTrue(expected.isEmpty());
+  }
+}
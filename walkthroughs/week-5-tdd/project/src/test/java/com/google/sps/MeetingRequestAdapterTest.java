@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingRequestAdapterTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter(3))
+      .create();
+
+  @Test
+  public void readsTheSameShapeAsGson() {
+    MeetingRequest expected =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30, 1);
+    expected.addOptionalAttendee(PERSON_C);
+    String json = new Gson().toJson(expected);
+
+    MeetingRequest actual = GSON.fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(new HashSet<>(expected.getAttendees()),
+        new HashSet<>(actual.getAttendees()));
+    Assert.assertEquals(new HashSet<>(expected.getOptionalAttendees()),
+        new HashSet<>(actual.getOptionalAttendees()));
+    Assert.assertEquals(30, actual.getDuration());
+    Assert.assertEquals(1, actual.getMinAttendees());
+
+    // Writing the request back produces JSON that plain Gson reads the same way.
+    MeetingRequest roundTrip = new Gson().fromJson(GSON.toJson(actual), MeetingRequest.class);
+    Assert.assertEquals(new HashSet<>(expected.getAttendees()),
+        new HashSet<>(roundTrip.getAttendees()));
+    Assert.assertEquals(1, roundTrip.getMinAttendees());
+  }
+
+  @Test
+  public void readsThePayloadOfThePage() {
+    // What script.js sends: the duration is the raw string value of its input field.
+    MeetingRequest actual = GSON.fromJson("{\"duration\":\"30\","
+        + "\"attendees\":[\"Person A\",\"Person B\"],\"optional_attendees\":[\"\"],"
+        + "\"min_attendees\":0}", MeetingRequest.class);
+
+    Assert.assertEquals(30, actual.getDuration());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)),
+        new HashSet<>(actual.getAttendees()));
+    Assert.assertEquals(0, actual.getMinAttendees());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void quotedDurationMustBeWhole() {
+    GSON.fromJson("{\"attendees\":[],\"duration\":\"thirty\"}", MeetingRequest.class);
+  }
+
+  @Test
+  public void duplicatesCountOnce() {
+    MeetingRequest actual = GSON.fromJson(
+        "{\"attendees\":[\"Person A\",\"Person A\",\"Person A\",\"Person A\"],\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A)),
+        new HashSet<>(actual.getAttendees()));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void tooManyAttendees() {
+    GSON.fromJson("{\"attendees\":[\"Person A\",\"Person B\"],"
+        + "\"optional_attendees\":[\"Person C\",\"Person D\"],\"duration\":30}",
+        MeetingRequest.class);
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void attendeesMustBeStrings() {
+    GSON.fromJson("{\"attendees\":[1],\"duration\":30}", MeetingRequest.class);
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void durationIsRequired() {
+    GSON.fromJson("{\"attendees\":[]}", MeetingRequest.class);
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void durationCannotBeNegative() {
+    GSON.fromJson("{\"attendees\":[],\"duration\":-30}", MeetingRequest.class);
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void durationCannotBeLongerThanADay() {
+    // Cast to an int, this would wrap around to 30 minutes.
+    GSON.fromJson("{\"attendees\":[],\"duration\":4294967326}", MeetingRequest.class);
+  }
+
+  @Test
+  public void durationCanBeAWholeDay() {
+    MeetingRequest request =
+        GSON.fromJson("{\"attendees\":[],\"duration\":1440}", MeetingRequest.class);
+
+    Assert.assertEquals(TimeRange.WHOLE_DAY.duration(), request.getDuration());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void durationMustBeWhole() {
+    GSON.fromJson("{\"attendees\":[],\"duration\":1.5}", MeetingRequest.class);
+  }
+}
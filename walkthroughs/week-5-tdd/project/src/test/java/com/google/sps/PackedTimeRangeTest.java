@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedTimeRangeTest {
+  @Test
+  public void roundTrip() {
+    TimeRange range = TimeRange.fromStartDuration(100, 50);
+    long packed = PackedTimeRange.of(range);
+
+    Assert.assertEquals(100, PackedTimeRange.start(packed));
+    Assert.assertEquals(50, PackedTimeRange.duration(packed));
+    Assert.assertEquals(150, PackedTimeRange.end(packed));
+    Assert.assertEquals(range, PackedTimeRange.toTimeRange(packed));
+    Assert.assertEquals(packed, PackedTimeRange.fromStartEnd(100, 149, true));
+  }
+
+  @Test
+  public void sortsByStart() {
+    long[] ranges = {PackedTimeRange.fromStartDuration(300, 10),
+        PackedTimeRange.fromStartDuration(0, 500), PackedTimeRange.fromStartDuration(200, 1)};
+    Arrays.sort(ranges);
+
+    Assert.assertEquals(0, PackedTimeRange.start(ranges[0]));
+    Assert.assertEquals(200, PackedTimeRange.start(ranges[1]));
+    Assert.assertEquals(300, PackedTimeRange.start(ranges[2]));
+  }
+
+  @Test
+  public void matchesTimeRange() {
+    // Compare every pair of a few ranges that cover the interesting edge cases, including empty
+    // ranges and ranges that only touch.
+    TimeRange[] ranges = {TimeRange.fromStartDuration(200, 50), TimeRange.fromStartDuration(180, 20),
+        TimeRange.fromStartDuration(190, 20), TimeRange.fromStartDuration(210, 20),
+        TimeRange.fromStartDuration(240, 20), TimeRange.fromStartDuration(250, 20),
+        TimeRange.fromStartDuration(200, 50), TimeRange.fromStartDuration(220, 0)};
+
+    for (TimeRange a : ranges) {
+      for (TimeRange b : ranges) {
+        long packedA = PackedTimeRange.of(a);
+        long packedB = PackedTimeRange.of(b);
+        Assert.assertEquals(a.overlaps(b), PackedTimeRange.overlaps(packedA, packedB));
+        Assert.assertEquals(a.contains(b), PackedTimeRange.contains(packedA, packedB));
+        Assert.assertEquals(a.contains(b.start()), PackedTimeRange.contains(packedA, b.start()));
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurrenceTest {
+  private static final long START_DAY = 100;
+
+  @Test
+  public void dailyWithInterval() {
+    Recurrence recurrence = Recurrence.daily(START_DAY, 2);
+
+    Assert.assertEquals(Arrays.asList(104L, 106L, 108L), days(recurrence, 103, 108));
+    Assert.assertEquals(Recurrence.NO_UNTIL, recurrence.lastDay());
+  }
+
+  @Test
+  public void weeklyWithCount() {
+    Recurrence recurrence = Recurrence.weekly(START_DAY, 1).withCount(3);
+
+    Assert.assertEquals(Arrays.asList(100L, 107L, 114L), days(recurrence, 0, 1000));
+    Assert.assertEquals(114L, recurrence.lastDay());
+  }
+
+  @Test
+  public void untilIsInclusive() {
+    Recurrence recurrence = Recurrence.daily(START_DAY, 3).withUntil(106);
+
+    Assert.assertEquals(Arrays.asList(100L, 103L, 106L), days(recurrence, 0, 1000));
+  }
+
+  @Test
+  public void countAndUntilTakeTheEarlierEnd() {
+    Recurrence recurrence = Recurrence.weekly(START_DAY, 2).withCount(10).withUntil(130);
+
+    Assert.assertEquals(128L, recurrence.lastDay());
+  }
+
+  @Test
+  public void untilBeforeStartHasNoOccurrences() {
+    Recurrence recurrence = Recurrence.daily(START_DAY, 1).withUntil(START_DAY - 1);
+
+    Assert.assertTrue(days(recurrence, 0, 1000).isEmpty());
+  }
+
+  @Test
+  public void excludedDaysAreSkippedButStillCounted() {
+    Recurrence recurrence = Recurrence.daily(START_DAY, 1).withCount(4).withExcludedDays(100, 102);
+
+    Assert.assertEquals(Arrays.asList(101L, 103L), days(recurrence, 0, 1000));
+    Assert.assertEquals(103L, recurrence.lastDay());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void intervalMustBePositive() {
+    Recurrence.daily(START_DAY, 0);
+  }
+
+  private static List<Long> days(Recurrence recurrence, long fromDay, long toDay) {
+    List<Long> result = new ArrayList<>();
+    PrimitiveIterator.OfLong days = recurrence.days(fromDay, toDay);
+    while (days.hasNext()) {
+      result.add(days.nextLong());
+    }
+    return result;
+  }
+}
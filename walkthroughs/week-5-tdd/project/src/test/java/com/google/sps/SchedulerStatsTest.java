@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerStatsTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+          Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+          Arrays.asList(PERSON_B)),
+      new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+          Arrays.asList(PERSON_C)));
+
+  private SchedulerStats stats;
+
+  @Before
+  public void setUp() {
+    stats = SchedulerStats.getInstance();
+    stats.reset();
+  }
+
+  @Test
+  public void countsScannedAndMergedRanges() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    new FindMeetingQuery().query(EVENTS, request);
+
+    Assert.assertEquals(2, stats.getAttendeeSetsQueried());
+    Assert.assertEquals(4, stats.getAttendeesQueried());
+    Assert.assertEquals(6, stats.getEventsScanned());
+    Assert.assertEquals(4, stats.getEventsMatched());
+    Assert.assertEquals(4, stats.getBlockedRangesBeforeMerge());
+    Assert.assertEquals(2, stats.getBlockedRangesAfterMerge());
+  }
+
+  @Test
+  public void timesEveryPhase() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_C), DURATION_30_MINUTES);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    query.query(EVENTS, request);
+
+    Assert.assertTrue(query.getScanNanos() > 0);
+    Assert.assertTrue(query.getSortNanos() > 0);
+    Assert.assertTrue(query.getExtractNanos() > 0);
+    Assert.assertTrue(stats.getScanNanos() >= query.getScanNanos());
+  }
+
+  @Test
+  public void cacheHitDoesNotQuery() {
+    EventRepository repository = new EventRepository(EVENTS);
+    MeetingQueryCache cache = new MeetingQueryCache(1);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(repository.snapshot(), request, new FindMeetingQuery());
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    cache.query(repository.snapshot(), request, query);
+
+    Assert.assertEquals(1, query.getCacheHits());
+    Assert.assertEquals(0, query.getScanNanos());
+    Assert.assertEquals(0, query.getExtractNanos());
+  }
+
+  @Test
+  public void unregisterRemovesTheMBean() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(SchedulerStats.OBJECT_NAME);
+
+    SchedulerStats.unregister();
+    boolean isRegistered = server.isRegistered(name);
+    // Puts the stats back for the other tests, which run in the same JVM.
+    server.registerMBean(stats, name);
+
+    Assert.assertFalse(isRegistered);
+  }
+
+  @Test
+  public void registeredWithPlatformMBeanServer() throws Exception {
+    new FindMeetingQuery().query(EVENTS, new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+
+    Object scanned = ManagementFactory.getPlatformMBeanServer()
+        .getAttribute(new ObjectName(SchedulerStats.OBJECT_NAME), "EventsScanned");
+
+    // The request is queried with and without its (missing) optional attendees.
+    Assert.assertEquals(6L, scanned);
+  }
+}
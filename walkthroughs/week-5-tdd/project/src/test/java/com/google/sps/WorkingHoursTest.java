@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final int TIME_0100AM = TimeRange.getTimeInMinutes(1, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+  private static final int TIME_1100PM = TimeRange.getTimeInMinutes(23, 0);
+
+  private static final int HOURS = 60;
+
+  @Test
+  public void utc() {
+    WorkingHours hours = WorkingHours.of(TIME_0900AM, TIME_0500PM, 0);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0500PM, TimeRange.END_OF_DAY, true)),
+        hours.getBlockedRanges());
+  }
+
+  @Test
+  public void aheadOfUtc() {
+    // 9:00 to 17:00 in UTC+10 is 23:00 the day before to 7:00 in UTC.
+    WorkingHours hours = WorkingHours.of(TIME_0900AM, TIME_0500PM, 10 * HOURS);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(7 * HOURS, TIME_1100PM, false)),
+        hours.getBlockedRanges());
+  }
+
+  @Test
+  public void behindUtc() {
+    // 9:00 to 17:00 in UTC-8 is 17:00 to 1:00 the next day in UTC.
+    WorkingHours hours = WorkingHours.of(TIME_0900AM, TIME_0500PM, -8 * HOURS);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0100AM, TIME_0500PM, false)),
+        hours.getBlockedRanges());
+  }
+
+  @Test
+  public void wholeDay() {
+    WorkingHours hours = WorkingHours.of(TimeRange.START_OF_DAY, 24 * HOURS, 5 * HOURS);
+
+    Assert.assertEquals(Collections.emptyList(), hours.getBlockedRanges());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyHours() {
+    WorkingHours.of(TIME_0900AM, TIME_0900AM, 0);
+  }
+}